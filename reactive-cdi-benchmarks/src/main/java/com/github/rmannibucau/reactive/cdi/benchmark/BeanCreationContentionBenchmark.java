@@ -0,0 +1,77 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fresh scope per invocation, fanned out to {@code branches} tasks which all race on the first lookup of the same bean.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeanCreationContentionBenchmark {
+    @Benchmark
+    public Object firstAccess(final Branches branches) {
+        final var context = branches.context;
+        final var root = context.start();
+        try {
+            final var lookups = new CompletableFuture<?>[branches.branches];
+            for (int i = 0; i < lookups.length; i++) {
+                lookups[i] = CompletableFuture.supplyAsync(
+                        () -> context.get(branches.contextual, branches.creationalContext), branches.pool);
+            }
+            CompletableFuture.allOf(lookups).join();
+            return lookups[lookups.length - 1].join();
+        } finally {
+            context.finish(root);
+            context.reset(root);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Branches {
+        @Param({"16", "64"})
+        private int branches;
+
+        @Param("2000")
+        private long creationCost;
+
+        protected ReactiveContext context;
+        protected ExecutorService pool;
+        protected Contextual<Object> contextual;
+        protected final CreationalContext<Object> creationalContext = Beans.newCreationalContext();
+
+        @Setup
+        public void start() {
+            context = new ReactiveContext();
+            pool = context.wrapExecutorService(Executors.newFixedThreadPool(branches));
+            contextual = Beans.newSlowContextual(creationCost);
+        }
+
+        @TearDown
+        public void stop() throws InterruptedException {
+            pool.shutdownNow();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+}
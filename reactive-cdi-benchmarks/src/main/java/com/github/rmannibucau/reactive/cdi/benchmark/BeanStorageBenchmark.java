@@ -0,0 +1,119 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Bean storage of a scope: {@code indexed=true} uses the slots of contextuals registered at boot,
+ * {@code indexed=false} the map fallback (equivalent to the historical {@code ConcurrentHashMap} storage).
+ * {@code proxiedCalls} measures the lookups done by the client proxies, per call.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BeanStorageBenchmark {
+    private static final int CALLS = 64;
+    private static final int RUN = 4;
+
+    @Benchmark
+    public ReactiveContext.Ctx request(final Contextuals beans, final Blackhole blackhole) { // start, resolve all beans, finish
+        final var context = beans.context;
+        final var root = context.start();
+        try {
+            for (final var contextual : beans.contextuals) {
+                blackhole.consume(context.get(contextual, beans.creationalContext));
+            }
+        } finally {
+            context.finish(root);
+            context.reset(root);
+        }
+        return root;
+    }
+
+    @Benchmark
+    public void lookup(final BoundScope scope, final Blackhole blackhole) {
+        for (final var contextual : scope.beans.contextuals) {
+            blackhole.consume(scope.beans.context.get(contextual, scope.beans.creationalContext));
+        }
+    }
+
+    // what a normal scoped proxy does on each method call, beans are called RUN times in a row
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void proxiedCalls(final BoundScope scope, final Blackhole blackhole) {
+        final var context = scope.beans.context;
+        final var contextuals = scope.beans.contextuals;
+        for (int i = 0; i < CALLS; i++) {
+            final var contextual = contextuals[(i / RUN) % contextuals.length];
+            var instance = context.get(contextual);
+            if (instance == null) {
+                instance = context.get(contextual, scope.beans.creationalContext);
+            }
+            blackhole.consume(instance.hashCode());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Contextuals {
+        @Param({"1", "5"})
+        private int count;
+
+        @Param({"true", "false"})
+        private boolean indexed;
+
+        protected final ReactiveContext context = new ReactiveContext();
+        protected final CreationalContext<Object> creationalContext = Beans.newCreationalContext();
+        protected Contextual<Object>[] contextuals;
+
+        @Setup
+        public void setup() {
+            contextuals = IntStream.range(0, count)
+                    .mapToObj(i -> Beans.newContextual())
+                    .toArray(Contextual[]::new);
+            if (indexed) {
+                for (final var contextual : contextuals) {
+                    context.register(contextual);
+                }
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BoundScope {
+        protected Contextuals beans;
+        protected ReactiveContext.Ctx root;
+
+        @Setup(Level.Iteration)
+        public void start(final Contextuals beans) {
+            this.beans = beans;
+            root = beans.context.start();
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            beans.context.finish(root);
+            beans.context.reset(root);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+
+// container free beans, enough to exercise ReactiveContext without booting CDI
+public final class Beans {
+    private Beans() {
+        // no-op
+    }
+
+    public static Contextual<Object> newContextual() {
+        return new SimpleContextual();
+    }
+
+    // burns some cpu in create() to widen the window where concurrent first accesses collide
+    public static Contextual<Object> newSlowContextual(final long tokens) {
+        return new SimpleContextual() {
+            @Override
+            public Object create(final CreationalContext<Object> creationalContext) {
+                Blackhole.consumeCPU(tokens);
+                return super.create(creationalContext);
+            }
+        };
+    }
+
+    public static CreationalContext<Object> newCreationalContext() {
+        return new SimpleCreationalContext();
+    }
+
+    private static class SimpleContextual implements Contextual<Object> {
+        @Override
+        public Object create(final CreationalContext<Object> creationalContext) {
+            return new Object();
+        }
+
+        @Override
+        public void destroy(final Object instance, final CreationalContext<Object> creationalContext) {
+            // no-op
+        }
+    }
+
+    private static class SimpleCreationalContext implements CreationalContext<Object> {
+        @Override
+        public void push(final Object incompleteInstance) {
+            // no-op
+        }
+
+        @Override
+        public void release() {
+            // no-op
+        }
+    }
+}
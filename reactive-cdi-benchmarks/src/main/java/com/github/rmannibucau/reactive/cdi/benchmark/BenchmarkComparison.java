@@ -0,0 +1,124 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares two JMH CSV reports ({@code -rf csv}), typically the committed baseline and a fresh run.
+ *
+ * Usage: {@code BenchmarkComparison <baseline.csv> <current.csv> [max regression in %, default 10]}.
+ * Only primary scores and the normalized allocation rate ({@code -prof gc}) are compared.
+ * Exits with status 1 when a benchmark regressed more than the threshold.
+ */
+public final class BenchmarkComparison {
+    private static final String PACKAGE = BenchmarkComparison.class.getPackageName() + '.';
+
+    private BenchmarkComparison() {
+        // no-op
+    }
+
+    public static void main(final String... args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: " + BenchmarkComparison.class.getName() + " <baseline.csv> <current.csv> [threshold%]");
+            System.exit(2);
+        }
+        final var baseline = read(Path.of(args[0]));
+        final var current = read(Path.of(args[1]));
+        final double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.;
+
+        int regressions = 0;
+        System.out.printf("%-70s %15s %15s %9s%n", "Benchmark", "Baseline", "Current", "Delta");
+        for (final var entry : current.entrySet()) {
+            final var before = baseline.get(entry.getKey());
+            final var after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-70s %15s %15.3f %9s%n", entry.getKey(), "-", after.score, "new");
+                continue;
+            }
+            // throughput units are "ops/time", anything else (time/op, B/op, ...) is better when lower
+            final double delta = (after.score - before.score) * 100. / before.score;
+            final double improvement = after.unit.startsWith("ops/") ? delta : -delta;
+            final boolean regression = improvement < -threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-70s %15.3f %15.3f %+8.1f%%%s%n",
+                    entry.getKey(), before.score, after.score, delta, regression ? " REGRESSION" : "");
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " regression(s) over " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(final Path csv) throws IOException {
+        final var lines = Files.readAllLines(csv, UTF_8);
+        if (lines.isEmpty()) {
+            return Map.of();
+        }
+        final var header = parseLine(lines.get(0));
+        final int benchmark = header.indexOf("Benchmark");
+        final int threads = header.indexOf("Threads");
+        final int score = header.indexOf("Score");
+        final int unit = header.indexOf("Unit");
+        final var results = new LinkedHashMap<String, Result>();
+        for (final var line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            final var columns = parseLine(line);
+            final var name = columns.get(benchmark);
+            final int secondary = name.indexOf(':');
+            if (secondary > 0 && !name.endsWith(":gc.alloc.rate.norm")) { // other profiler metrics are too noisy
+                continue;
+            }
+            final var key = new StringBuilder(name.startsWith(PACKAGE) ? name.substring(PACKAGE.length()) : name)
+                    .append(" (t=").append(columns.get(threads));
+            for (int i = unit + 1; i < columns.size(); i++) { // params
+                if (!columns.get(i).isEmpty()) {
+                    key.append(", ").append(header.get(i).replace("Param: ", "")).append('=').append(columns.get(i));
+                }
+            }
+            key.append(')');
+            results.put(key.toString(), new Result(
+                    Double.parseDouble(columns.get(score).replace(',', '.')), Objects.requireNonNull(columns.get(unit))));
+        }
+        return results;
+    }
+
+    private static List<String> parseLine(final String line) {
+        final var columns = new ArrayList<String>();
+        final var current = new StringBuilder();
+        boolean quoted = false;
+        for (final char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+
+    private static class Result {
+        private final double score;
+        private final String unit;
+
+        private Result(final double score, final String unit) {
+            this.score = score;
+            this.unit = unit;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * {@code thenApply} chains of {@code depth} stages, raw versus wrapped with
+ * {@link ReactiveContext#wrapCompletableFuture(CompletableFuture)}.
+ * {@code *Completed} variants chain on an already completed future (callbacks run inline at registration),
+ * {@code *Pending} variants build the chain first and complete it afterwards (callbacks run on completion).
+ * {@code rewrapped} wraps an already wrapped future again, as done when a stage crosses several layers.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompletionFutureBenchmark {
+    @Benchmark
+    public Object rawCompleted(final BoundScope scope) {
+        return chain(CompletableFuture.completedFuture(scope), scope).join();
+    }
+
+    @Benchmark
+    public Object wrappedCompleted(final BoundScope scope) {
+        return chain(scope.context.wrapCompletableFuture(CompletableFuture.completedFuture(scope)), scope).join();
+    }
+
+    @Benchmark
+    public Object rewrapped(final BoundScope scope) {
+        final var context = scope.context;
+        return chain(context.wrapCompletableFuture(context.wrapCompletableFuture(CompletableFuture.completedFuture(scope))), scope).join();
+    }
+
+    @Benchmark
+    public Object rawPending(final BoundScope scope) {
+        final var promise = new CompletableFuture<Object>();
+        final var result = chain(promise, scope);
+        promise.complete(scope);
+        return result.join();
+    }
+
+    @Benchmark
+    public Object wrappedPending(final BoundScope scope) {
+        final var promise = new CompletableFuture<Object>();
+        final var result = chain(scope.context.wrapCompletableFuture(promise), scope);
+        promise.complete(scope);
+        return result.join();
+    }
+
+    private CompletableFuture<Object> chain(final CompletableFuture<Object> start, final BoundScope scope) {
+        var current = start;
+        for (int i = 0; i < scope.depth; i++) {
+            current = current.thenApply(scope.stage);
+        }
+        return current;
+    }
+
+    @State(Scope.Thread)
+    public static class BoundScope {
+        @Param({"1", "8"})
+        protected int depth;
+
+        protected final ReactiveContext context = new ReactiveContext();
+        protected final Function<Object, Object> stage = Function.identity();
+        protected ReactiveContext.Ctx root;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            root = context.start();
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            context.finish(root);
+            context.reset(root);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Round trips through a thread pool, raw versus wrapped with {@link ReactiveContext#wrapExecutorService(ExecutorService)},
+ * and a pipeline of async stages of a scope, wrapped versus {@link ReactiveContext#newAffinityExecutorService(int)}.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExecutorServiceBenchmark {
+    private static final int PIPELINE_STAGES = 4;
+
+    @Benchmark
+    public Object submitRaw(final Pools pools, final BoundScope scope) throws ExecutionException, InterruptedException {
+        return pools.raw.submit(scope.task).get();
+    }
+
+    @Benchmark
+    public Object submitWrapped(final Pools pools, final BoundScope scope) throws ExecutionException, InterruptedException {
+        return pools.wrapped.submit(scope.task).get();
+    }
+
+    @Benchmark
+    public Object invokeAllRaw(final Pools pools, final BoundScope scope) throws ExecutionException, InterruptedException {
+        return await(pools.raw.invokeAll(scope.tasks));
+    }
+
+    @Benchmark
+    public Object invokeAllWrapped(final Pools pools, final BoundScope scope) throws ExecutionException, InterruptedException {
+        return await(pools.wrapped.invokeAll(scope.tasks));
+    }
+
+    @Benchmark
+    public Object pipelineWrapped(final Pools pools, final BoundScope scope) throws ExecutionException, InterruptedException {
+        return pipeline(pools.wrapped, scope);
+    }
+
+    @Benchmark
+    public Object pipelineAffinity(final Pools pools, final BoundScope scope) throws ExecutionException, InterruptedException {
+        return pipeline(pools.affinity, scope);
+    }
+
+    // consecutive async stages of a request, each resolving a bean of the scope
+    private Object pipeline(final ExecutorService executor, final BoundScope scope) throws ExecutionException, InterruptedException {
+        var stage = CompletableFuture.supplyAsync(scope.lookup, executor);
+        for (int i = 1; i < PIPELINE_STAGES; i++) {
+            stage = stage.thenApplyAsync(previous -> scope.lookup.get(), executor);
+        }
+        return stage.get();
+    }
+
+    private Object await(final List<Future<Object>> futures) throws ExecutionException, InterruptedException {
+        Object last = null;
+        for (final var future : futures) {
+            last = future.get();
+        }
+        return last;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Pools {
+        @Param("4")
+        private int poolSize;
+
+        protected final ReactiveContext context = new ReactiveContext();
+        protected ExecutorService raw;
+        protected ExecutorService wrapped;
+        protected ExecutorService affinity;
+
+        @Setup
+        public void start() {
+            raw = Executors.newFixedThreadPool(poolSize);
+            wrapped = context.wrapExecutorService(raw);
+            affinity = context.newAffinityExecutorService(poolSize);
+        }
+
+        @TearDown
+        public void stop() throws InterruptedException {
+            raw.shutdownNow();
+            affinity.shutdownNow();
+            raw.awaitTermination(1, TimeUnit.MINUTES);
+            affinity.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BoundScope {
+        @Param("8")
+        private int batchSize;
+
+        protected ReactiveContext context;
+        protected ReactiveContext.Ctx root;
+        protected Callable<Object> task;
+        protected List<Callable<Object>> tasks;
+        protected Supplier<Object> lookup;
+
+        @Setup(Level.Iteration)
+        public void start(final Pools pools) {
+            context = pools.context;
+            root = context.start();
+            final var contextual = Beans.newContextual();
+            final var creationalContext = Beans.newCreationalContext();
+            lookup = () -> context.get(contextual, creationalContext);
+            task = () -> this;
+            tasks = IntStream.range(0, batchSize).mapToObj(i -> task).collect(toList());
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            context.finish(root);
+            context.reset(root);
+        }
+    }
+}
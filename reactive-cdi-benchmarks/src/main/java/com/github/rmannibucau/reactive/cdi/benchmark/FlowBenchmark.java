@@ -0,0 +1,203 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.flow.ReactiveProcessor;
+import com.github.rmannibucau.reactive.cdi.scope.internal.flow.ReactivePublisher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per item cost of the {@code flow} wrappers: a synchronous publisher emits {@link #ITEMS} items per invocation
+ * so the score is directly the number of delivered items.
+ * {@code detached*} variants emit from a thread without context (the usual case of a publisher running
+ * in its own pool): the context is bound once per delivery run and not once per item.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FlowBenchmark {
+    private static final int ITEMS = 1024;
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void rawPublisher(final BoundScope scope) {
+        new RangePublisher(ITEMS).subscribe(new BlackholeSubscriber(scope.blackhole));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void wrappedPublisher(final BoundScope scope) {
+        scope.context.wrapPublisher(new RangePublisher(ITEMS)).subscribe(new BlackholeSubscriber(scope.blackhole));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void wrappedSubscriber(final BoundScope scope) {
+        new RangePublisher(ITEMS).subscribe(scope.context.wrapSubscriber(new BlackholeSubscriber(scope.blackhole)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void wrappedProcessor(final BoundScope scope) {
+        final var processor = scope.context.wrapProcessor(new PassthroughProcessor());
+        processor.subscribe(new BlackholeSubscriber(scope.blackhole));
+        new RangePublisher(ITEMS).subscribe(processor);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void detachedPublisher(final DetachedScope scope) {
+        new ReactivePublisher<>(new RangePublisher(ITEMS), scope.captured)
+                .subscribe(new BlackholeSubscriber(scope.blackhole));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void detachedProcessor(final DetachedScope scope) {
+        final var processor = new ReactiveProcessor<>(new PassthroughProcessor(), scope.captured);
+        processor.subscribe(new BlackholeSubscriber(scope.blackhole));
+        new RangePublisher(ITEMS).subscribe(processor);
+    }
+
+    @State(Scope.Thread)
+    public static class DetachedScope {
+        protected final ReactiveContext context = new ReactiveContext();
+        protected ReactiveContext.Ctx root;
+        protected ReactiveContext.Ctx captured;
+        protected Blackhole blackhole;
+
+        @Setup(Level.Iteration)
+        public void start(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+            root = context.start();
+            captured = context.current();
+            context.reset(root); // the benchmark thread is no more bound
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            context.finish(root);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BoundScope {
+        protected final ReactiveContext context = new ReactiveContext();
+        protected ReactiveContext.Ctx root;
+        protected Blackhole blackhole;
+
+        @Setup(Level.Iteration)
+        public void start(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+            root = context.start();
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            context.finish(root);
+            context.reset(root);
+        }
+    }
+
+    // synchronous and unbounded, good enough to measure the per-signal overhead of the wrappers
+    private static class RangePublisher implements Flow.Publisher<Integer> {
+        private final int count;
+
+        private RangePublisher(final int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super Integer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                    // no-op, we push everything
+                }
+
+                @Override
+                public void cancel() {
+                    // no-op
+                }
+            });
+            for (int i = 0; i < count; i++) {
+                subscriber.onNext(i);
+            }
+            subscriber.onComplete();
+        }
+    }
+
+    private static class BlackholeSubscriber implements Flow.Subscriber<Object> {
+        private final Blackhole blackhole;
+
+        private BlackholeSubscriber(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(final Object item) {
+            blackhole.consume(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            blackhole.consume(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            // no-op
+        }
+    }
+
+    private static class PassthroughProcessor implements Flow.Processor<Integer, Integer> {
+        private Flow.Subscriber<? super Integer> downstream;
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super Integer> subscriber) {
+            downstream = subscriber;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            downstream.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(final Integer item) {
+            downstream.onNext(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            downstream.onComplete();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parallel branches of a single scope resolving a shared and a branch local bean in turn,
+ * all bound to the scope ({@code shared}) versus each bound to its own {@link ReactiveContext.Ctx#fork()}.
+ */
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ForkBenchmark {
+    private static final int CALLS = 64;
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void shared(final Request request, final SharedBranch branch, final Blackhole blackhole) {
+        resolve(request, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CALLS)
+    public void forked(final Request request, final ForkedBranch branch, final Blackhole blackhole) {
+        resolve(request, blackhole);
+    }
+
+    private void resolve(final Request request, final Blackhole blackhole) {
+        for (int i = 0; i < CALLS; i++) {
+            final var contextual = (i & 1) == 0 ? request.shared : request.branchLocal;
+            blackhole.consume(request.context.get(contextual, request.creationalContext));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Request {
+        protected final ReactiveContext context = new ReactiveContext();
+        protected final Contextual<Object> shared = Beans.newContextual();
+        protected final Contextual<Object> branchLocal = Beans.newContextual();
+        protected final CreationalContext<Object> creationalContext = Beans.newCreationalContext();
+        protected ReactiveContext.Ctx root;
+        protected ReactiveContext.Ctx snapshot;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            context.register(shared);
+            context.registerBranchLocal(branchLocal);
+            root = context.start();
+            snapshot = context.current();
+            context.reset(root);
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            context.finish(root);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class SharedBranch {
+        private ReactiveContext.Ctx previous;
+        private ReactiveContext context;
+
+        @Setup(Level.Iteration)
+        public void bind(final Request request) {
+            context = request.context;
+            previous = context.push(request.snapshot);
+        }
+
+        @TearDown(Level.Iteration)
+        public void unbind() {
+            context.reset(previous);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ForkedBranch {
+        private ReactiveContext.Ctx fork;
+        private ReactiveContext.Ctx previous;
+        private ReactiveContext context;
+
+        @Setup(Level.Iteration)
+        public void bind(final Request request) {
+            context = request.context;
+            fork = request.snapshot.fork();
+            previous = context.push(fork);
+        }
+
+        @TearDown(Level.Iteration)
+        public void unbind() {
+            context.reset(previous);
+            context.finish(fork);
+        }
+    }
+}
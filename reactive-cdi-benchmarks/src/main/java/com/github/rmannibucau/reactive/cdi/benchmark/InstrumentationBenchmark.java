@@ -0,0 +1,96 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.metrics.ReactiveScopeMetrics;
+import com.github.rmannibucau.reactive.cdi.scope.spi.ReactiveScopeInstrumentation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the instrumentation on the instrumented paths, {@code noop} must match {@link ReactiveContextBenchmark}
+ * and {@link WrapBenchmark} numbers (the default implementation class is not even loaded in its fork).
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InstrumentationBenchmark {
+    @Benchmark
+    public ReactiveContext.Ctx startGetFinish(final Contexts contexts) {
+        final var context = contexts.context;
+        final var root = context.start();
+        try {
+            context.get(contexts.contextual, contexts.creationalContext);
+        } finally {
+            context.finish(root);
+            context.reset(root);
+        }
+        return root;
+    }
+
+    @Benchmark
+    public ReactiveContext.Ctx pushReset(final BoundScope scope) {
+        final var previous = scope.context.push(scope.root);
+        scope.context.reset(previous);
+        return previous;
+    }
+
+    @Benchmark
+    public void runWrapped(final BoundScope scope) {
+        scope.wrapped.run();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Contexts {
+        @Param({"noop", "metrics"})
+        private String instrumentation;
+
+        protected final ReactiveContext context = new ReactiveContext();
+        protected final Contextual<Object> contextual = Beans.newContextual();
+        protected final CreationalContext<Object> creationalContext = Beans.newCreationalContext();
+
+        @Setup
+        public void setup() {
+            context.setInstrumentation("noop".equals(instrumentation) ?
+                    ReactiveScopeInstrumentation.NOOP : new ReactiveScopeMetrics());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BoundScope {
+        protected ReactiveContext context;
+        protected ReactiveContext.Ctx root;
+        protected Runnable wrapped;
+
+        @Setup(Level.Iteration)
+        public void start(final Contexts contexts) {
+            context = contexts.context;
+            root = context.start();
+            wrapped = context.current().wrap(() -> {
+                // no-op
+            });
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            context.finish(root);
+            context.reset(root);
+        }
+    }
+}
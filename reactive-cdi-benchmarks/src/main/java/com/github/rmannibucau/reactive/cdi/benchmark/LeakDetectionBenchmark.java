@@ -0,0 +1,56 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the leak detection on a scope resolving a bean, per detection level (default sampling interval).
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LeakDetectionBenchmark {
+    @Benchmark
+    public ReactiveContext.Ctx startGetFinish(final Contexts contexts) {
+        final var context = contexts.context;
+        final var root = context.start();
+        try {
+            context.get(contexts.contextual, contexts.creationalContext);
+        } finally {
+            context.finish(root);
+            context.reset(root);
+        }
+        return root;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Contexts {
+        @Param({"DISABLED", "SAMPLED", "PARANOID"})
+        private ReactiveContext.LeakDetection level;
+
+        protected final ReactiveContext context = new ReactiveContext();
+        protected final Contextual<Object> contextual = Beans.newContextual();
+        protected final CreationalContext<Object> creationalContext = Beans.newCreationalContext();
+
+        @Setup
+        public void setup() {
+            context.setLeakDetection(level, 128, false);
+        }
+    }
+}
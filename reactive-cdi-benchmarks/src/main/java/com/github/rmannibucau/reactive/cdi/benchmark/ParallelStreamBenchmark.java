@@ -0,0 +1,70 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel stream over the common pool: raw, {@link ReactiveContext#wrapParallelStream(java.util.stream.Stream)}
+ * (bound once per split) and the naive per element {@link ReactiveContext#wrapFunction(java.util.function.Function)}.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallelStreamBenchmark {
+    private static final int ITEMS = 1 << 16;
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public long raw() {
+        return IntStream.range(0, ITEMS).boxed().parallel().mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public long wrappedStream(final BoundScope scope) {
+        return scope.context.wrapParallelStream(IntStream.range(0, ITEMS).boxed()).mapToLong(Integer::longValue).sum();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public long wrappedPerElement(final BoundScope scope) {
+        return IntStream.range(0, ITEMS).boxed().parallel()
+                .map(scope.context.wrapFunction(Integer::longValue))
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    @State(Scope.Thread)
+    public static class BoundScope {
+        protected final ReactiveContext context = new ReactiveContext();
+        protected ReactiveContext.Ctx root;
+
+        @Setup(Level.Iteration)
+        public void start() {
+            root = context.start();
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            context.finish(root);
+            context.reset(root);
+        }
+    }
+}
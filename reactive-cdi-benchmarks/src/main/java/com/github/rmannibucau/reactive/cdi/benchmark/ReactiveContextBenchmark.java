@@ -0,0 +1,107 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.CompletableFuture.completedStage;
+
+/**
+ * Scope lifecycle primitives: start/finish (and runInScope), snapshot (current), propagation (push/reset) and bean lookup.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReactiveContextBenchmark {
+    @Benchmark
+    public ReactiveContext.Ctx startFinish(final Contexts contexts) {
+        final var context = contexts.context;
+        final var root = context.start();
+        context.finish(root);
+        context.reset(root);
+        return root;
+    }
+
+    @Benchmark
+    public ReactiveContext.Ctx startGetFinish(final Contexts contexts) {
+        final var context = contexts.context;
+        final var root = context.start();
+        try {
+            context.get(contexts.contextual, contexts.creationalContext);
+        } finally {
+            context.finish(root);
+            context.reset(root);
+        }
+        return root;
+    }
+
+    @Benchmark
+    public Object runInScope(final Contexts contexts) {
+        return contexts.context.runInScope(() -> completedStage(contexts.context.get(contexts.contextual, contexts.creationalContext)));
+    }
+
+    @Benchmark
+    public ReactiveContext.Ctx current(final BoundScope scope) {
+        final var current = scope.context.current();
+        current.release();
+        return current;
+    }
+
+    @Benchmark
+    public ReactiveContext.Ctx pushReset(final BoundScope scope) {
+        final var previous = scope.context.push(scope.root);
+        scope.context.reset(previous);
+        return previous;
+    }
+
+    @Benchmark
+    public Object get(final BoundScope scope) {
+        return scope.context.get(scope.contextual, scope.creationalContext);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Contexts {
+        protected final ReactiveContext context = new ReactiveContext();
+        protected final Contextual<Object> contextual = Beans.newContextual();
+        protected final CreationalContext<Object> creationalContext = Beans.newCreationalContext();
+    }
+
+    @State(Scope.Thread)
+    public static class BoundScope {
+        protected ReactiveContext context;
+        protected Contextual<Object> contextual;
+        protected CreationalContext<Object> creationalContext;
+        protected ReactiveContext.Ctx root;
+
+        @Setup(Level.Iteration)
+        public void start(final Contexts contexts) {
+            context = contexts.context;
+            contextual = contexts.contextual;
+            creationalContext = contexts.creationalContext;
+            root = context.start();
+            context.get(contextual, creationalContext);
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            context.finish(root);
+            context.reset(root);
+        }
+    }
+}
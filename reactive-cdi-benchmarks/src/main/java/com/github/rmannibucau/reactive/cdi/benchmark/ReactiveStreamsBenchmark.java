@@ -0,0 +1,130 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.reactivestreams.ReactiveStreams;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.FlowAdapters;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per item cost of consuming a {@link Flow.Publisher} from a Reactive Streams subscriber with the context propagated,
+ * {@code FlowAdapters} on top of {@link ReactiveContext#wrapPublisher(Flow.Publisher)} versus the single layer bridge.
+ * Items are emitted from a thread without context.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReactiveStreamsBenchmark {
+    private static final int ITEMS = 1024;
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void adapted(final DetachedScope scope) {
+        scope.adapted.subscribe(new BlackholeSubscriber(scope.blackhole));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public void bridged(final DetachedScope scope) {
+        scope.bridged.subscribe(new BlackholeSubscriber(scope.blackhole));
+    }
+
+    @State(Scope.Thread)
+    public static class DetachedScope {
+        protected final ReactiveContext context = new ReactiveContext();
+        protected ReactiveContext.Ctx root;
+        protected Publisher<Integer> adapted;
+        protected Publisher<Integer> bridged;
+        protected Blackhole blackhole;
+
+        @Setup(Level.Iteration)
+        public void start(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+            root = context.start();
+            adapted = FlowAdapters.toPublisher(context.wrapPublisher(new RangePublisher(ITEMS)));
+            bridged = ReactiveStreams.toPublisher(context, new RangePublisher(ITEMS));
+            context.reset(root); // the benchmark thread is no more bound
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            context.finish(root);
+        }
+    }
+
+    // synchronous and unbounded, good enough to measure the per-signal overhead of the wrappers
+    private static class RangePublisher implements Flow.Publisher<Integer> {
+        private final int count;
+
+        private RangePublisher(final int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super Integer> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                    // no-op, we push everything
+                }
+
+                @Override
+                public void cancel() {
+                    // no-op
+                }
+            });
+            for (int i = 0; i < count; i++) {
+                subscriber.onNext(i);
+            }
+            subscriber.onComplete();
+        }
+    }
+
+    private static class BlackholeSubscriber implements Subscriber<Object> {
+        private final Blackhole blackhole;
+
+        private BlackholeSubscriber(final Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onSubscribe(final Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(final Object item) {
+            blackhole.consume(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            blackhole.consume(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            // no-op
+        }
+    }
+}
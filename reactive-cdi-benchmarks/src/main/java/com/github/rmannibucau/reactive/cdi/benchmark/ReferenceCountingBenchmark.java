@@ -0,0 +1,80 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of {@link ReactiveContext#setReferenceCounting(boolean)} on a scope lifecycle and on a task hop
+ * (an inline executor so only the wrapping cost is measured).
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReferenceCountingBenchmark {
+    @Benchmark
+    public Object startFinish(final Counting counting) {
+        final var context = counting.context;
+        final var root = context.start();
+        context.finish(root);
+        context.reset(root);
+        return root;
+    }
+
+    @Benchmark
+    public void executeInline(final Counting counting, final BoundScope scope) {
+        scope.executor.execute(scope.task);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Counting {
+        @Param({"false", "true"})
+        private boolean referenceCounting;
+
+        protected final ReactiveContext context = new ReactiveContext();
+
+        @Setup
+        public void setup() {
+            context.setReferenceCounting(referenceCounting);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BoundScope {
+        protected ReactiveContext context;
+        protected ReactiveContext.Ctx root;
+        protected Executor executor;
+        protected final Runnable task = () -> {
+            // no-op
+        };
+
+        @Setup(Level.Iteration)
+        public void start(final Counting counting) {
+            context = counting.context;
+            executor = context.wrapExecutor(Runnable::run);
+            root = context.start();
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            context.finish(root);
+            context.reset(root);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.servlet.RootReactiveContextFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RootReactiveContextFilter} overhead per request with container free request/response stubs:
+ * synchronous requests (eager and lazy modes) and requests going async then completed by the container.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ServletFilterBenchmark {
+    @Benchmark
+    public Object sync(final Filters filters, final Exchange exchange) throws IOException, ServletException {
+        filters.eager.doFilter(exchange.request, exchange.response, Exchange.SYNC);
+        return exchange.complete();
+    }
+
+    @Benchmark
+    public Object syncLazy(final Filters filters, final Exchange exchange) throws IOException, ServletException {
+        filters.lazy.doFilter(exchange.request, exchange.response, Exchange.SYNC);
+        return exchange.complete();
+    }
+
+    @Benchmark
+    public Object async(final Filters filters, final Exchange exchange) throws IOException, ServletException {
+        filters.eager.doFilter(exchange.request, exchange.response, Exchange.ASYNC);
+        return exchange.complete();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Filters {
+        protected final ReactiveContext context = new ReactiveContext();
+        protected final RootReactiveContextFilter eager = new RootReactiveContextFilter();
+        protected final RootReactiveContextFilter lazy = new RootReactiveContextFilter();
+
+        @Setup
+        public void init() throws ReflectiveOperationException {
+            final var field = RootReactiveContextFilter.class.getDeclaredField("context");
+            field.setAccessible(true);
+            field.set(eager, context);
+            field.set(lazy, context);
+            lazy.init(FilterConfig.class.cast(Proxy.newProxyInstance(
+                    Thread.currentThread().getContextClassLoader(), new Class<?>[]{FilterConfig.class},
+                    (proxy, method, args) -> "getInitParameter".equals(method.getName()) && "lazy".equals(args[0]) ? "true" : null)));
+        }
+    }
+
+    // mimics the container side of a request: startAsync, listeners and their notification on completion
+    @State(Scope.Thread)
+    public static class Exchange {
+        private static final FilterChain SYNC = (request, response) -> {
+            // no-op
+        };
+        private static final FilterChain ASYNC = (request, response) -> request.startAsync();
+
+        protected HttpServletRequest request;
+        protected HttpServletResponse response;
+        private AsyncContext asyncContext;
+        private final List<AsyncListener> listeners = new ArrayList<>();
+        private boolean asyncStarted;
+
+        @Setup
+        public void init() {
+            final var loader = Thread.currentThread().getContextClassLoader();
+            asyncContext = AsyncContext.class.cast(Proxy.newProxyInstance(loader, new Class<?>[]{AsyncContext.class}, (proxy, method, args) -> {
+                if ("addListener".equals(method.getName())) {
+                    listeners.add(AsyncListener.class.cast(args[0]));
+                }
+                return null;
+            }));
+            request = HttpServletRequest.class.cast(Proxy.newProxyInstance(loader, new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "startAsync":
+                        asyncStarted = true;
+                        return asyncContext;
+                    case "getAsyncContext":
+                        return asyncContext;
+                    case "isAsyncStarted":
+                        return asyncStarted;
+                    default:
+                        return method.getReturnType() == boolean.class ? false : null;
+                }
+            }));
+            response = HttpServletResponse.class.cast(Proxy.newProxyInstance(loader, new Class<?>[]{HttpServletResponse.class},
+                    (proxy, method, args) -> null));
+        }
+
+        private Object complete() throws IOException {
+            if (!listeners.isEmpty()) {
+                final var event = new AsyncEvent(asyncContext);
+                for (final var listener : listeners) {
+                    listener.onComplete(event);
+                }
+                listeners.clear();
+            }
+            asyncStarted = false;
+            return request;
+        }
+    }
+}
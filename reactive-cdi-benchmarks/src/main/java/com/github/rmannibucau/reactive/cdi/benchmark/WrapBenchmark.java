@@ -0,0 +1,85 @@
+package com.github.rmannibucau.reactive.cdi.benchmark;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cost of a propagation hop: wrapping a task with {@link ReactiveContext.Ctx} and executing the wrapper.
+ * {@code *Wrapped} variants only execute a pre-wrapped task to isolate the push/reset cost from the wrapping allocation.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WrapBenchmark {
+    @Benchmark
+    public void wrapRunnable(final BoundScope scope) {
+        scope.ctx.wrap(scope.runnable).run();
+    }
+
+    @Benchmark
+    public Object wrapSupplier(final BoundScope scope) {
+        return scope.ctx.wrap(scope.supplier).get();
+    }
+
+    @Benchmark
+    public Object wrapFunction(final BoundScope scope) {
+        return scope.context.wrapFunction(scope.function).apply(scope);
+    }
+
+    @Benchmark
+    public void runWrapped(final BoundScope scope) {
+        scope.wrappedRunnable.run();
+    }
+
+    @Benchmark
+    public Object getWrapped(final BoundScope scope) {
+        return scope.wrappedSupplier.get();
+    }
+
+    @State(Scope.Thread)
+    public static class BoundScope {
+        protected final ReactiveContext context = new ReactiveContext();
+        protected ReactiveContext.Ctx root;
+        protected ReactiveContext.Ctx ctx;
+        protected Runnable runnable;
+        protected Supplier<Object> supplier;
+        protected Function<Object, Object> function;
+        protected Runnable wrappedRunnable;
+        protected Supplier<Object> wrappedSupplier;
+
+        @Setup(Level.Iteration)
+        public void start(final Blackhole blackhole) {
+            root = context.start();
+            ctx = context.current();
+            runnable = () -> blackhole.consume(this);
+            supplier = () -> this;
+            function = it -> it;
+            wrappedRunnable = ctx.wrap(runnable);
+            wrappedSupplier = ctx.wrap(supplier);
+        }
+
+        @TearDown(Level.Iteration)
+        public void finish() {
+            context.finish(root);
+            context.reset(root);
+        }
+    }
+}
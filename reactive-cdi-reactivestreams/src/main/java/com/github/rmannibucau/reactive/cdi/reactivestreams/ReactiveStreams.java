@@ -0,0 +1,63 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams;
+
+import com.github.rmannibucau.reactive.cdi.reactivestreams.internal.FlowPublisherBridge;
+import com.github.rmannibucau.reactive.cdi.reactivestreams.internal.FlowSubscriberBridge;
+import com.github.rmannibucau.reactive.cdi.reactivestreams.internal.PublisherBridge;
+import com.github.rmannibucau.reactive.cdi.reactivestreams.internal.ReactiveProcessor;
+import com.github.rmannibucau.reactive.cdi.reactivestreams.internal.ReactivePublisher;
+import com.github.rmannibucau.reactive.cdi.reactivestreams.internal.ReactiveSubscriber;
+import com.github.rmannibucau.reactive.cdi.reactivestreams.internal.ReactiveSubscription;
+import com.github.rmannibucau.reactive.cdi.reactivestreams.internal.SubscriberBridge;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.reactivestreams.Processor;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.Flow;
+
+/**
+ * {@code org.reactivestreams} flavor of the {@code ReactiveContext.wrap*} flow methods.
+ * All methods capture the current context of {@code context}.
+ *
+ * The {@code to*} bridges convert between Reactive Streams and {@link Flow} types and propagate the context
+ * in a single layer, prefer them to {@code org.reactivestreams.FlowAdapters} combined with a {@code wrap*} method
+ * which adds a wrapper, and a context check, per signal.
+ */
+public final class ReactiveStreams {
+    private ReactiveStreams() {
+        // no-op
+    }
+
+    public static Subscription wrapSubscription(final ReactiveContext context, final Subscription delegate) {
+        return new ReactiveSubscription(delegate, context.current());
+    }
+
+    public static <A, B> Processor<A, B> wrapProcessor(final ReactiveContext context, final Processor<A, B> delegate) {
+        return new ReactiveProcessor<>(delegate, context.current());
+    }
+
+    public static <A> Subscriber<A> wrapSubscriber(final ReactiveContext context, final Subscriber<A> delegate) {
+        return new ReactiveSubscriber<>(delegate, context.current());
+    }
+
+    public static <A> Publisher<A> wrapPublisher(final ReactiveContext context, final Publisher<A> delegate) {
+        return new ReactivePublisher<>(delegate, context.current());
+    }
+
+    public static <A> Flow.Publisher<A> toFlowPublisher(final ReactiveContext context, final Publisher<A> delegate) {
+        return FlowPublisherBridge.of(delegate, context.current());
+    }
+
+    public static <A> Publisher<A> toPublisher(final ReactiveContext context, final Flow.Publisher<A> delegate) {
+        return PublisherBridge.of(delegate, context.current());
+    }
+
+    public static <A> Flow.Subscriber<A> toFlowSubscriber(final ReactiveContext context, final Subscriber<? super A> delegate) {
+        return new FlowSubscriberBridge<>(delegate, context.current());
+    }
+
+    public static <A> Subscriber<A> toSubscriber(final ReactiveContext context, final Flow.Subscriber<? super A> delegate) {
+        return new SubscriberBridge<>(delegate, context.current());
+    }
+}
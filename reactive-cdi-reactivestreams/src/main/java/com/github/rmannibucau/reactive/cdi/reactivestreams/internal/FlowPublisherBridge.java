@@ -0,0 +1,47 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams.internal;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Exposes a Reactive Streams publisher as a {@link Flow.Publisher}, binding the context around the signals
+ * in the same layer as the type conversion.
+ */
+public class FlowPublisherBridge<A> implements Flow.Publisher<A> {
+    final Publisher<A> delegate;
+    final ReactiveContext.Ctx ctx;
+
+    public FlowPublisherBridge(final Publisher<A> delegate, final ReactiveContext.Ctx ctx) {
+        this.delegate = delegate;
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super A> subscriber) {
+        final var previous = ctx.enter();
+        try {
+            delegate.subscribe(new SubscriberBridge<>(subscriber, ctx));
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+
+    /**
+     * @param publisher the publisher to convert.
+     * @param ctx       the context to bind.
+     * @param <A>       the type of the items.
+     * @return a new bridge, or when {@code publisher} is itself a bridge of the same context a plain context wrapper
+     * of the Flow publisher it converts (the round trip conversion is dropped, the wrapper is still a new instance).
+     */
+    public static <A> Flow.Publisher<A> of(final Publisher<A> publisher, final ReactiveContext.Ctx ctx) {
+        if (publisher instanceof PublisherBridge<?>) {
+            final var bridge = (PublisherBridge<A>) publisher;
+            if (bridge.ctx == ctx) {
+                return new com.github.rmannibucau.reactive.cdi.scope.internal.flow.ReactivePublisher<>(bridge.delegate, ctx);
+            }
+        }
+        return new FlowPublisherBridge<>(publisher, ctx);
+    }
+}
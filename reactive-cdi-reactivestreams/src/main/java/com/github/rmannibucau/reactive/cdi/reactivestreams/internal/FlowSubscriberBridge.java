@@ -0,0 +1,44 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams.internal;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.flow.AbstractReactiveSubscriber;
+import org.reactivestreams.Subscriber;
+
+import java.util.concurrent.Flow;
+
+/**
+ * A {@link Flow.Subscriber} forwarding the signals to a Reactive Streams subscriber with the context bound.
+ */
+public class FlowSubscriberBridge<A> extends AbstractReactiveSubscriber<A> implements Flow.Subscriber<A> {
+    private final Subscriber<? super A> delegate;
+
+    public FlowSubscriberBridge(final Subscriber<? super A> delegate, final ReactiveContext.Ctx ctx) {
+        super(delegate, ctx);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        final var previous = ctx.enter();
+        try {
+            delegate.onSubscribe(new SubscriptionBridge(subscription, ctx, reference));
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+
+    @Override
+    protected void forwardNext(final A item) {
+        delegate.onNext(item);
+    }
+
+    @Override
+    protected void forwardError(final Throwable throwable) {
+        delegate.onError(throwable);
+    }
+
+    @Override
+    protected void forwardComplete() {
+        delegate.onComplete();
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams.internal;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
+import com.github.rmannibucau.reactive.cdi.scope.internal.flow.AbstractReactiveSubscription;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.Flow;
+
+/**
+ * A {@link Flow.Subscription} forwarding to a Reactive Streams subscription with the context bound.
+ */
+public class FlowSubscriptionBridge extends AbstractReactiveSubscription implements Flow.Subscription {
+    private final Subscription delegate;
+
+    public FlowSubscriptionBridge(final Subscription delegate, final ReactiveContext.Ctx ctx,
+                                  final ScopeReference reference) {
+        super(delegate, ctx, reference);
+        this.delegate = delegate;
+    }
+
+    @Override
+    protected void forwardRequest(final long n) {
+        delegate.request(n);
+    }
+
+    @Override
+    protected void forwardCancel() {
+        delegate.cancel();
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams.internal;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+import java.util.concurrent.Flow;
+
+/**
+ * Exposes a {@link Flow.Publisher} as a Reactive Streams one, binding the context around the signals
+ * in the same layer as the type conversion.
+ */
+public class PublisherBridge<A> implements Publisher<A> {
+    final Flow.Publisher<A> delegate;
+    final ReactiveContext.Ctx ctx;
+
+    public PublisherBridge(final Flow.Publisher<A> delegate, final ReactiveContext.Ctx ctx) {
+        this.delegate = delegate;
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super A> subscriber) {
+        final var previous = ctx.enter();
+        try {
+            delegate.subscribe(new FlowSubscriberBridge<>(subscriber, ctx));
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+
+    /**
+     * @param publisher the publisher to convert.
+     * @param ctx       the context to bind.
+     * @param <A>       the type of the items.
+     * @return a new bridge, or when {@code publisher} is itself a bridge of the same context a plain context wrapper
+     * of the Reactive Streams publisher it converts (the round trip conversion is dropped, the wrapper is still a new instance).
+     */
+    public static <A> Publisher<A> of(final Flow.Publisher<A> publisher, final ReactiveContext.Ctx ctx) {
+        if (publisher instanceof FlowPublisherBridge<?>) {
+            final var bridge = (FlowPublisherBridge<A>) publisher;
+            if (bridge.ctx == ctx) {
+                return new ReactivePublisher<>(bridge.delegate, ctx);
+            }
+        }
+        return new PublisherBridge<>(publisher, ctx);
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams.internal;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.reactivestreams.Processor;
+import org.reactivestreams.Subscriber;
+
+public class ReactiveProcessor<A, B> extends ReactiveSubscriber<A> implements Processor<A, B> {
+    private final Processor<A, B> delegate;
+
+    public ReactiveProcessor(final Processor<A, B> delegate, final ReactiveContext.Ctx ctx) {
+        super(delegate, ctx);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super B> subscriber) {
+        final var previous = ctx.enter();
+        try {
+            delegate.subscribe(new ReactiveSubscriber<>(subscriber, ctx));
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+}
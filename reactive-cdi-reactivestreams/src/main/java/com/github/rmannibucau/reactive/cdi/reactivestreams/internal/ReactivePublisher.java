@@ -0,0 +1,25 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams.internal;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+
+public class ReactivePublisher<A> implements Publisher<A> {
+    private final Publisher<A> delegate;
+    private final ReactiveContext.Ctx ctx;
+
+    public ReactivePublisher(final Publisher<A> delegate, final ReactiveContext.Ctx ctx) {
+        this.delegate = delegate;
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super A> subscriber) {
+        final var previous = ctx.enter();
+        try {
+            delegate.subscribe(new ReactiveSubscriber<>(subscriber, ctx));
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+}
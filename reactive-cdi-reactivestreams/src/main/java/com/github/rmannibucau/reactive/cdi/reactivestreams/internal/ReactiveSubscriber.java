@@ -0,0 +1,44 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams.internal;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.flow.AbstractReactiveSubscriber;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * Same as the {@code java.util.concurrent.Flow} flavor: binds the context around each signal
+ * unless the emitting thread is already bound to it and holds a scope reference until the terminal signal.
+ */
+public class ReactiveSubscriber<A> extends AbstractReactiveSubscriber<A> implements Subscriber<A> {
+    protected final Subscriber<A> delegate;
+
+    public ReactiveSubscriber(final Subscriber<A> delegate, final ReactiveContext.Ctx ctx) {
+        super(delegate, ctx);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        final var previous = ctx.enter();
+        try {
+            delegate.onSubscribe(new ReactiveSubscription(subscription, ctx, reference));
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+
+    @Override
+    protected void forwardNext(final A item) {
+        delegate.onNext(item);
+    }
+
+    @Override
+    protected void forwardError(final Throwable throwable) {
+        delegate.onError(throwable);
+    }
+
+    @Override
+    protected void forwardComplete() {
+        delegate.onComplete();
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams.internal;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
+import com.github.rmannibucau.reactive.cdi.scope.internal.flow.AbstractReactiveSubscription;
+import org.reactivestreams.Subscription;
+
+public class ReactiveSubscription extends AbstractReactiveSubscription implements Subscription {
+    private final Subscription delegate;
+
+    public ReactiveSubscription(final Subscription delegate, final ReactiveContext.Ctx ctx) {
+        this(delegate, ctx, ScopeReference.NONE);
+    }
+
+    public ReactiveSubscription(final Subscription delegate, final ReactiveContext.Ctx ctx,
+                                final ScopeReference reference) {
+        super(delegate, ctx, reference);
+        this.delegate = delegate;
+    }
+
+    @Override
+    protected void forwardRequest(final long n) {
+        delegate.request(n);
+    }
+
+    @Override
+    protected void forwardCancel() {
+        delegate.cancel();
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams.internal;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.flow.AbstractReactiveSubscriber;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.Flow;
+
+/**
+ * A Reactive Streams subscriber forwarding the signals to a {@link Flow.Subscriber} with the context bound.
+ */
+public class SubscriberBridge<A> extends AbstractReactiveSubscriber<A> implements Subscriber<A> {
+    private final Flow.Subscriber<? super A> delegate;
+
+    public SubscriberBridge(final Flow.Subscriber<? super A> delegate, final ReactiveContext.Ctx ctx) {
+        super(delegate, ctx);
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+        final var previous = ctx.enter();
+        try {
+            delegate.onSubscribe(new FlowSubscriptionBridge(subscription, ctx, reference));
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+
+    @Override
+    protected void forwardNext(final A item) {
+        delegate.onNext(item);
+    }
+
+    @Override
+    protected void forwardError(final Throwable throwable) {
+        delegate.onError(throwable);
+    }
+
+    @Override
+    protected void forwardComplete() {
+        delegate.onComplete();
+    }
+}
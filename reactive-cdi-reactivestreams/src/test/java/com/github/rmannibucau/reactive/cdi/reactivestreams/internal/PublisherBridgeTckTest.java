@@ -0,0 +1,80 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams.internal;
+
+import com.github.rmannibucau.reactive.cdi.reactivestreams.ReactiveStreams;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.reactivestreams.FlowAdapters;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.example.unicast.AsyncIterablePublisher;
+import org.reactivestreams.tck.PublisherVerification;
+import org.reactivestreams.tck.TestEnvironment;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class PublisherBridgeTckTest extends PublisherVerification<Long> {
+    private final ReactiveContext context = new ReactiveContext();
+    private final ReactiveContext.Ctx root = context.start();
+    private final ReactiveContext.Ctx captured = context.current();
+    private ExecutorService executor;
+
+    public PublisherBridgeTckTest() {
+        super(new TestEnvironment());
+        context.reset(root); // the publisher runs in other threads
+    }
+
+    @BeforeMethod
+    public void startExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterMethod
+    public void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @AfterClass
+    public void finish() {
+        context.finish(root);
+    }
+
+    @Override
+    public Publisher<Long> createPublisher(final long elements) {
+        return wrap(new AsyncIterablePublisher<>(() -> new Iterator<>() {
+            private long remaining = elements;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Long next() {
+                if (remaining-- <= 0) {
+                    throw new NoSuchElementException();
+                }
+                return remaining;
+            }
+        }, executor));
+    }
+
+    @Override
+    public Publisher<Long> createFailedPublisher() {
+        return wrap(new AsyncIterablePublisher<Long>(() -> {
+            throw new IllegalStateException("failed on purpose");
+        }, executor));
+    }
+
+    private Publisher<Long> wrap(final Publisher<Long> publisher) {
+        final var previous = context.push(captured);
+        try {
+            return ReactiveStreams.toPublisher(context, FlowAdapters.toFlowPublisher(publisher));
+        } finally {
+            context.reset(previous);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.rmannibucau.reactive.cdi.reactivestreams.internal;
+
+import com.github.rmannibucau.reactive.cdi.reactivestreams.ReactiveStreams;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.reactivestreams.FlowAdapters;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.example.unicast.SyncSubscriber;
+import org.reactivestreams.tck.SubscriberBlackboxVerification;
+import org.reactivestreams.tck.TestEnvironment;
+import org.testng.annotations.AfterClass;
+
+public class SubscriberBridgeTckTest extends SubscriberBlackboxVerification<Integer> {
+    private final ReactiveContext context = new ReactiveContext();
+    private final ReactiveContext.Ctx root = context.start();
+    private final ReactiveContext.Ctx captured = context.current();
+
+    public SubscriberBridgeTckTest() {
+        super(new TestEnvironment());
+        context.reset(root); // signals come from other threads
+    }
+
+    @AfterClass
+    public void finish() {
+        context.finish(root);
+    }
+
+    @Override
+    public Subscriber<Integer> createSubscriber() {
+        final var previous = context.push(captured);
+        try {
+            return ReactiveStreams.toSubscriber(context, FlowAdapters.toFlowSubscriber(new SyncSubscriber<Integer>() {
+                @Override
+                protected boolean whenNext(final Integer element) {
+                    if (!context.isActive()) {
+                        throw new IllegalStateException("Context not propagated");
+                    }
+                    return true;
+                }
+            }));
+        } finally {
+            context.reset(previous);
+        }
+    }
+
+    @Override
+    public Integer createElement(final int element) {
+        return element;
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.rmannibucau.reactive.cdi.reactor;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * Exposes the context bound to the current thread to {@code io.micrometer:context-propagation}.
+ * Values are the shared snapshots of {@link ReactiveContext#current()} so capturing does not allocate,
+ * the binding replaced by a propagated value is restored with {@link ReactiveContext#reset(ReactiveContext.Ctx)}.
+ */
+public class ReactiveContextAccessor implements ThreadLocalAccessor<ReactiveContext.Ctx> {
+    private final ReactiveContext context;
+
+    public ReactiveContextAccessor(final ReactiveContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public Object key() {
+        return ReactorContextPropagation.KEY;
+    }
+
+    @Override
+    public ReactiveContext.Ctx getValue() { // also captures the binding to restore, so not only active scopes
+        final var current = context.current();
+        return current.hasScope() ? current : null;
+    }
+
+    @Override
+    public void setValue(final ReactiveContext.Ctx value) {
+        context.push(value); // the previous binding is the value captured by getValue() and passed to restore
+    }
+
+    @Override
+    public void setValue() {
+        context.unbind();
+    }
+
+    @Override
+    public void restore(final ReactiveContext.Ctx previousValue) {
+        context.reset(previousValue);
+    }
+
+    @Override
+    public void restore() {
+        context.unbind();
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.rmannibucau.reactive.cdi.reactor;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import io.micrometer.context.ContextRegistry;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.util.function.Function;
+
+/**
+ * Propagates a {@link ReactiveContext} in Reactor pipelines at thread boundaries instead of wrapping each operator:
+ *
+ * <ul>
+ *     <li>tasks submitted to Reactor schedulers ({@code publishOn}, {@code subscribeOn}, delays...) capture
+ *     the context of the scheduling thread,</li>
+ *     <li>when {@code io.micrometer:context-propagation} is available, the context is also registered as a
+ *     {@code ThreadLocalAccessor} so it can be stored in the Reactor {@link Context} at subscription time
+ *     ({@link #capture(ReactiveContext)} or {@code contextCapture()}) and restored by Reactor when signals come
+ *     from a thread it does not manage (with {@code Hooks.enableAutomaticContextPropagation()}).</li>
+ * </ul>
+ *
+ * Hooks are global to the Reactor instance, {@link ReactorPropagationExtension} installs them when the container starts.
+ */
+public final class ReactorContextPropagation {
+    public static final String KEY = ReactiveContext.Ctx.class.getName();
+
+    private static final boolean CONTEXT_PROPAGATION = hasContextPropagation();
+
+    private ReactorContextPropagation() {
+        // no-op
+    }
+
+    public static void install(final ReactiveContext context) {
+        Schedulers.onScheduleHook(KEY, task -> context.isActive() ? context.current().wrap(task) : task);
+        if (CONTEXT_PROPAGATION) {
+            ContextRegistry.getInstance().registerThreadLocalAccessor(new ReactiveContextAccessor(context));
+        }
+    }
+
+    public static void uninstall() {
+        Schedulers.resetOnScheduleHook(KEY);
+        if (CONTEXT_PROPAGATION) {
+            ContextRegistry.getInstance().removeThreadLocalAccessor(KEY);
+        }
+    }
+
+    /**
+     * To use with {@code contextWrite}, it stores the context of the subscribing thread in the Reactor context.
+     *
+     * @param context the reactive context.
+     * @return the Reactor context modifier.
+     */
+    public static Function<Context, Context> capture(final ReactiveContext context) {
+        return reactorContext -> context.isActive() ? reactorContext.put(KEY, context.current()) : reactorContext;
+    }
+
+    private static boolean hasContextPropagation() {
+        try {
+            Class.forName("io.micrometer.context.ContextRegistry", false, ReactorContextPropagation.class.getClassLoader());
+            return true;
+        } catch (final ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.rmannibucau.reactive.cdi.reactor;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterDeploymentValidation;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.BeforeShutdown;
+import javax.enterprise.inject.spi.Extension;
+
+public class ReactorPropagationExtension implements Extension {
+    public void install(@Observes final AfterDeploymentValidation afterDeploymentValidation, final BeanManager beanManager) {
+        ReactorContextPropagation.install(beanManager.createInstance().select(ReactiveContext.class).get());
+    }
+
+    public void uninstall(@Observes final BeforeShutdown beforeShutdown) {
+        ReactorContextPropagation.uninstall();
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.rmannibucau.reactive.cdi.reactor;
+
+import com.github.rmannibucau.reactive.cdi.scope.api.ReactiveScoped;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.apache.meecrowave.junit5.MeecrowaveConfig;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Hooks;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import javax.inject.Inject;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@MeecrowaveConfig(scanningPackageIncludes = "com.github.rmannibucau.reactive.cdi.reactor.ReactorContextPropagationTest")
+class ReactorContextPropagationTest {
+    @Inject
+    private ReactiveContext context;
+
+    @Inject
+    private Value value;
+
+    @Test
+    void schedulers() {
+        final var previous = context.start();
+        try {
+            value.setValue("scheduled");
+            assertEquals("scheduled/scheduled", Mono.fromCallable(value::getValue)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .publishOn(Schedulers.parallel())
+                    .map(it -> it + "/" + value.getValue())
+                    .block());
+        } finally {
+            context.finish(previous);
+            context.reset(previous);
+        }
+    }
+
+    @Test
+    void foreignThread() throws Exception {
+        Hooks.enableAutomaticContextPropagation();
+        final var previous = context.start();
+        try {
+            value.setValue("captured");
+            final var sink = Sinks.<String>one();
+            final var result = sink.asMono()
+                    .map(it -> it + "/" + value.getValue())
+                    .contextWrite(ReactorContextPropagation.capture(context))
+                    .toFuture();
+
+            final var emitter = new Thread(() -> sink.tryEmitValue("foreign"));
+            emitter.start();
+            emitter.join(TimeUnit.MINUTES.toMillis(1));
+
+            assertEquals("foreign/captured", result.get(1, TimeUnit.MINUTES));
+        } finally {
+            Hooks.disableAutomaticContextPropagation();
+            context.finish(previous);
+            context.reset(previous);
+        }
+    }
+
+    @Test
+    void nestedSnapshot() throws Exception {
+        final var snapshots = ContextSnapshotFactory.builder().build();
+        final var inner = context.start();
+        final ReactiveContext.Ctx innerCtx;
+        final ContextSnapshot snapshot;
+        try {
+            value.setValue("inner");
+            innerCtx = context.current();
+            snapshot = snapshots.captureAll();
+        } finally {
+            context.reset(inner);
+        }
+
+        final var outer = context.start();
+        try {
+            value.setValue("outer");
+            final var outerCtx = context.current();
+            try (final var scope = snapshot.setThreadLocals()) {
+                assertSame(innerCtx, context.current());
+                assertEquals("inner", value.getValue());
+            }
+            assertSame(outerCtx, context.current());
+            assertEquals("outer", value.getValue());
+        } finally {
+            context.finish(outer);
+            context.reset(outer);
+        }
+
+        try (final var scope = snapshot.setThreadLocals()) { // nothing bound before
+            assertEquals("inner", value.getValue());
+        } finally {
+            context.finish(inner);
+        }
+        assertFalse(context.current().hasScope());
+    }
+
+    @ReactiveScoped
+    public static class Value {
+        private String value;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(final String value) {
+            this.value = value;
+        }
+    }
+}
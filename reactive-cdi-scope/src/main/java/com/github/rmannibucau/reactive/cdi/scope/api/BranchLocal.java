@@ -0,0 +1,19 @@
+package com.github.rmannibucau.reactive.cdi.scope.api;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks a {@link ReactiveScoped} bean as owned by each branch: a scope forked with
+ * {@code ReactiveContext.Ctx#fork()} gets its own instance, destroyed when the fork is finished,
+ * instead of sharing the one of its parent. In a scope which is not a fork it behaves as any {@link ReactiveScoped} bean.
+ */
+@Retention(RUNTIME)
+@Target({FIELD, METHOD, TYPE})
+public @interface BranchLocal {
+}
@@ -0,0 +1,61 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.CompletableFuture;
+
+class BeanInstanceBag<T> implements Serializable {
+    private static final VarHandle CREATION;
+    private static final VarHandle DESTROYED;
+
+    static {
+        try {
+            final var lookup = MethodHandles.lookup();
+            CREATION = lookup.findVarHandle(BeanInstanceBag.class, "creation", Creation.class);
+            DESTROYED = lookup.findVarHandle(BeanInstanceBag.class, "destroyed", boolean.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    final Contextual<T> contextual;
+    final CreationalContext<T> creationalContext;
+    volatile boolean destroyed = false;
+    volatile T instance;
+    private transient volatile Creation<T> creation; // owned by the thread creating the instance
+
+    BeanInstanceBag(final Contextual<T> contextual, final CreationalContext<T> creationalContext) {
+        this.contextual = contextual;
+        this.creationalContext = creationalContext;
+    }
+
+    /**
+     * @param candidate the creation of the calling thread.
+     * @return {@code null} if the caller owns the creation, the pending (or done) creation otherwise.
+     */
+    Creation<T> startCreation(final Creation<T> candidate) {
+        return (Creation<T>) CREATION.compareAndExchange(this, null, candidate);
+    }
+
+    void creationFailed(final Creation<T> failed) { // let next lookup retry
+        CREATION.compareAndSet(this, failed, null);
+    }
+
+    Creation<T> creation() {
+        return creation;
+    }
+
+    boolean markDestroyed() {
+        return DESTROYED.compareAndSet(this, false, true);
+    }
+
+    /**
+     * Completed with the instance, other threads park on it (no monitor so virtual threads are not pinned).
+     */
+    static class Creation<T> extends CompletableFuture<T> {
+        final Thread creator = Thread.currentThread();
+    }
+}
@@ -0,0 +1,230 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Bean instances of a scope instance.
+ * Indexed contextuals (the ones known at boot) are stored in an array slot created lazily with a CAS,
+ * others (registered after the scope started or never seen by the extension) fallback on a lazily created map.
+ * The array itself is only allocated by the first lookup so a scope never resolving a bean stays cheap.
+ * The last resolved bag is cached since client proxies resolve the same bean on each call, often several times in a row.
+ * A forked storage only owns the branch local beans, others are resolved from its parent (and cached in the fork
+ * so branches do not write the cache of the parent).
+ */
+class BeanStorage {
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(BeanInstanceBag[].class);
+    private static final VarHandle ARRAY;
+    private static final VarHandle OTHERS;
+    private static final VarHandle REFERENCES;
+
+    static {
+        try {
+            final var lookup = MethodHandles.lookup();
+            ARRAY = lookup.findVarHandle(BeanStorage.class, "slots", BeanInstanceBag[].class);
+            OTHERS = lookup.findVarHandle(BeanStorage.class, "others", ConcurrentHashMap.class);
+            REFERENCES = lookup.findVarHandle(BeanStorage.class, "references", int.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final ContextualIndex index;
+    private final BeanStorage parent;
+    private final int size;
+    private volatile BeanInstanceBag<?>[] slots;
+    private volatile ConcurrentHashMap<Contextual<?>, BeanInstanceBag<?>> others;
+    private BeanInstanceBag<?> last; // racy, a bag is safely published (final contextual) and destroyed ones are skipped
+    private volatile int references = 1; // the root, only used when reference counting is enabled
+    volatile boolean destroyed;
+    ReactiveContext.Ctx destruction; // bound by the destroying threads, published to them by the executor hand-off
+    long startToken; // instrumentation one
+    ScopeReference parentReference = ScopeReference.NONE; // keeps the parent alive with reference counting
+
+    BeanStorage(final ContextualIndex index) {
+        this(index, null);
+    }
+
+    BeanStorage(final ContextualIndex index, final BeanStorage parent) {
+        this.index = index;
+        this.parent = parent;
+        this.size = index.size();
+    }
+
+    /**
+     * @return {@code true} if this storage or one of its parents is destroyed.
+     */
+    boolean isDestroyed() {
+        return destroyed || (parent != null && parent.isDestroyed());
+    }
+
+    <T> BeanInstanceBag<T> get(final Contextual<T> contextual) {
+        final var cached = last;
+        if (cached != null && cached.contextual == contextual && !cached.destroyed) {
+            return (BeanInstanceBag<T>) cached;
+        }
+        final var bag = find(contextual, index.indexOf(contextual));
+        if (bag != null) {
+            last = bag;
+        }
+        return bag;
+    }
+
+    <T> BeanInstanceBag<T> getOrCreate(final Contextual<T> contextual, final CreationalContext<T> creationalContext) {
+        final var cached = last;
+        if (cached != null && cached.contextual == contextual && !cached.destroyed) {
+            return (BeanInstanceBag<T>) cached;
+        }
+        final var bag = doGetOrCreate(contextual, creationalContext, index.indexOf(contextual));
+        last = bag;
+        return bag;
+    }
+
+    private <T> BeanInstanceBag<T> find(final Contextual<T> contextual, final int slot) {
+        if (isInherited(slot)) {
+            return parent.find(contextual, slot);
+        }
+        if (slot >= 0 && slot < size) {
+            final var array = slots;
+            return array == null ? null : (BeanInstanceBag<T>) SLOTS.getAcquire(array, slot);
+        }
+        final var map = others;
+        return map == null ? null : (BeanInstanceBag<T>) map.get(contextual);
+    }
+
+    private <T> BeanInstanceBag<T> doGetOrCreate(final Contextual<T> contextual, final CreationalContext<T> creationalContext,
+                                                 final int slot) {
+        if (isInherited(slot)) {
+            return parent.doGetOrCreate(contextual, creationalContext, slot);
+        }
+        if (slot >= 0 && slot < size) {
+            final var array = slots();
+            final var existing = (BeanInstanceBag<T>) SLOTS.getAcquire(array, slot);
+            if (existing != null) {
+                return existing;
+            }
+            final var bag = new BeanInstanceBag<>(contextual, creationalContext);
+            final var witness = (BeanInstanceBag<T>) SLOTS.compareAndExchange(array, slot, null, bag);
+            return witness == null ? bag : witness;
+        }
+        final var map = others();
+        final var existing = (BeanInstanceBag<T>) map.get(contextual);
+        if (existing != null) {
+            return existing;
+        }
+        final var bag = new BeanInstanceBag<>(contextual, creationalContext);
+        final var witness = (BeanInstanceBag<T>) map.putIfAbsent(contextual, bag);
+        return witness == null ? bag : witness;
+    }
+
+    /**
+     * @return {@code false} if the instances of {@code contextual} belong to a parent storage.
+     */
+    boolean owns(final Contextual<?> contextual) {
+        return !isInherited(index.indexOf(contextual));
+    }
+
+    void remove(final Contextual<?> contextual, final BeanInstanceBag<?> bag) {
+        if (last == bag) {
+            last = null;
+        }
+        final int slot = index.indexOf(contextual);
+        if (slot >= 0 && slot < size) {
+            final var array = slots;
+            if (array != null) {
+                SLOTS.compareAndSet(array, slot, bag, null);
+            }
+            return;
+        }
+        final var map = others;
+        if (map != null) {
+            map.remove(contextual, bag);
+        }
+    }
+
+    void forEach(final BiConsumer<Contextual<?>, BeanInstanceBag<?>> consumer) {
+        final var array = slots;
+        if (array != null) {
+            for (int i = 0; i < array.length; i++) {
+                final var bag = (BeanInstanceBag<?>) SLOTS.getAcquire(array, i);
+                if (bag != null) {
+                    consumer.accept(bag.contextual, bag);
+                }
+            }
+        }
+        final var map = others;
+        if (map != null) {
+            map.forEach(consumer);
+        }
+    }
+
+    void clear() {
+        last = null;
+        final var array = slots;
+        if (array != null) {
+            for (int i = 0; i < array.length; i++) {
+                SLOTS.setRelease(array, i, null);
+            }
+        }
+        final var map = others;
+        if (map != null) {
+            map.clear();
+        }
+    }
+
+    /**
+     * @return {@code true} if no bean was ever looked up in this storage.
+     */
+    boolean isEmpty() {
+        return slots == null && others == null;
+    }
+
+    /**
+     * @return {@code false} if the storage was already released by all its references (destroyed or being destroyed).
+     */
+    boolean retain() {
+        int current;
+        do {
+            current = references;
+            if (current <= 0) {
+                return false;
+            }
+        } while (!REFERENCES.weakCompareAndSet(this, current, current + 1));
+        return true;
+    }
+
+    /**
+     * @return {@code true} if it was the last reference, the caller must destroy the storage.
+     */
+    boolean release() {
+        return (int) REFERENCES.getAndAdd(this, -1) == 1;
+    }
+
+    private boolean isInherited(final int slot) {
+        return parent != null && !index.isBranchLocal(slot);
+    }
+
+    private BeanInstanceBag<?>[] slots() {
+        final var existing = slots;
+        if (existing != null) {
+            return existing;
+        }
+        final var array = new BeanInstanceBag<?>[size];
+        final var witness = (BeanInstanceBag<?>[]) ARRAY.compareAndExchange(this, null, array);
+        return witness == null ? array : witness;
+    }
+
+    private ConcurrentHashMap<Contextual<?>, BeanInstanceBag<?>> others() {
+        final var existing = others;
+        if (existing != null) {
+            return existing;
+        }
+        final var map = new ConcurrentHashMap<Contextual<?>, BeanInstanceBag<?>>();
+        final var witness = (ConcurrentHashMap<Contextual<?>, BeanInstanceBag<?>>) OTHERS.compareAndExchange(this, null, map);
+        return witness == null ? map : witness;
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * How the current context snapshot is attached to the running thread.
+ * {@code null} means no context is bound.
+ */
+abstract class ContextBinding {
+    abstract ReactiveContext.Ctx get();
+
+    abstract void set(ReactiveContext.Ctx snapshot);
+
+    void run(final ReactiveContext.Ctx snapshot, final Runnable task) {
+        final var previous = get();
+        set(snapshot);
+        try {
+            task.run();
+        } finally {
+            set(previous);
+        }
+    }
+
+    <T> T get(final ReactiveContext.Ctx snapshot, final Supplier<T> task) {
+        final var previous = get();
+        set(snapshot);
+        try {
+            return task.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    <T> T call(final ReactiveContext.Ctx snapshot, final Callable<T> task) throws Exception {
+        final var previous = get();
+        set(snapshot);
+        try {
+            return task.call();
+        } finally {
+            set(previous);
+        }
+    }
+}
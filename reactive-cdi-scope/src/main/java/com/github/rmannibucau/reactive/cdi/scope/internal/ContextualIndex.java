@@ -0,0 +1,47 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal;
+
+import javax.enterprise.context.spi.Contextual;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns a dense index to the contextuals known at boot time, it is the slot they use in {@link BeanStorage}.
+ * Registration is copy on write since it only happens during the container startup, lookups are lock free.
+ * It also knows the branch local contextuals, the ones a forked scope does not inherit from its parent.
+ */
+class ContextualIndex {
+    private volatile Map<Contextual<?>, Integer> indices = Map.of();
+    private volatile boolean[] branchLocals = new boolean[0]; // by index
+
+    synchronized void register(final Contextual<?> contextual) {
+        if (indices.containsKey(contextual)) {
+            return;
+        }
+        final var copy = new HashMap<>(indices);
+        copy.put(contextual, copy.size());
+        indices = copy;
+    }
+
+    synchronized void registerBranchLocal(final Contextual<?> contextual) {
+        register(contextual);
+        final int index = indexOf(contextual);
+        final var copy = Arrays.copyOf(branchLocals, Math.max(branchLocals.length, index + 1));
+        copy[index] = true;
+        branchLocals = copy;
+    }
+
+    boolean isBranchLocal(final int index) {
+        final var flags = branchLocals;
+        return index >= 0 && index < flags.length && flags[index];
+    }
+
+    int indexOf(final Contextual<?> contextual) {
+        final var index = indices.get(contextual);
+        return index == null ? -1 : index;
+    }
+
+    int size() {
+        return indices.size();
+    }
+}
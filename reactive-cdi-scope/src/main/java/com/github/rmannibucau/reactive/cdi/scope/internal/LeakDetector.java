@@ -0,0 +1,81 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal;
+
+import java.lang.ref.Cleaner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tracks a sample of the scope roots with a {@link Cleaner}: a root becoming unreachable without having been finished
+ * can never be finished anymore so its beans leak. The creation stack is only captured for tracked roots
+ * which bounds the overhead to the sampling interval.
+ */
+class LeakDetector {
+    private final ReactiveContext context;
+    private final int samplingInterval;
+    private final boolean destroyLeaked;
+    private final Cleaner cleaner;
+    private final LongAdder leaks = new LongAdder();
+
+    LeakDetector(final ReactiveContext context, final int samplingInterval, final boolean destroyLeaked) {
+        this.context = context;
+        this.samplingInterval = samplingInterval;
+        this.destroyLeaked = destroyLeaked;
+        this.cleaner = Cleaner.create(task -> {
+            final var thread = new Thread(task, ReactiveContext.class.getName() + "-leak-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param root    the root to track, it must not be referenced by the storage.
+     * @param storage the storage of the root.
+     * @return the tracker to notify when the root is finished, {@code null} if the root is not sampled.
+     */
+    Tracker track(final ReactiveContext.Ctx root, final BeanStorage storage) {
+        if (samplingInterval > 1 && ThreadLocalRandom.current().nextInt(samplingInterval) != 0) {
+            return null;
+        }
+        final var tracker = new Tracker(storage, new Throwable("Reactive scope started here"));
+        tracker.cleanable = cleaner.register(root, tracker);
+        return tracker;
+    }
+
+    long getLeaks() {
+        return leaks.sum();
+    }
+
+    // must not reference the root, it would never become unreachable
+    class Tracker implements Runnable {
+        private final BeanStorage storage;
+        private final Throwable creation;
+        private volatile boolean finished;
+        private Cleaner.Cleanable cleanable;
+
+        private Tracker(final BeanStorage storage, final Throwable creation) {
+            this.storage = storage;
+            this.creation = creation;
+        }
+
+        void finished() {
+            finished = true;
+            cleanable.clean(); // unregisters it
+        }
+
+        @Override
+        public void run() {
+            if (finished) {
+                return;
+            }
+            leaks.increment();
+            Logger.getLogger(ReactiveContext.class.getName()).log(Level.WARNING,
+                    "A reactive scope was not finished before being garbage collected" +
+                            (destroyLeaked ? ", destroying its beans" : ", its beans are not destroyed"), creation);
+            if (destroyLeaked) {
+                context.finishLeaked(storage);
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.github.rmannibucau.reactive.cdi.scope.internal;
 
+import com.github.rmannibucau.reactive.cdi.scope.api.BranchLocal;
 import com.github.rmannibucau.reactive.cdi.scope.api.ReactiveScoped;
+import com.github.rmannibucau.reactive.cdi.scope.internal.metrics.ReactiveScopeMetrics;
+import com.github.rmannibucau.reactive.cdi.scope.spi.ReactiveScopeInstrumentation;
 
 import javax.enterprise.context.Dependent;
 import javax.enterprise.event.Observes;
@@ -8,15 +11,52 @@ import javax.enterprise.inject.Any;
 import javax.enterprise.inject.Default;
 import javax.enterprise.inject.spi.AfterBeanDiscovery;
 import javax.enterprise.inject.spi.BeforeBeanDiscovery;
+import javax.enterprise.inject.spi.BeforeShutdown;
 import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ProcessBean;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static java.util.Locale.ROOT;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 public class ReactiveCDIScopeExtension implements Extension {
+    private static final String CONFIGURATION_PREFIX = "reactive-cdi.scope.";
+
     private final ReactiveContext context = new ReactiveContext();
+    private ObjectName metricsName;
+    private ExecutorService destructionExecutor;
 
     public void addRouteScope(@Observes final BeforeBeanDiscovery beforeBeanDiscovery) {
+        context.setPropagation(ReactiveContext.Propagation.valueOf(
+                config("propagation", "thread-local").toUpperCase(ROOT).replace('-', '_')));
+        context.setReferenceCounting(Boolean.parseBoolean(config("reference-counting", "false")));
+        context.setInstrumentation(createInstrumentation(config("instrumentation", "false")));
+        configureDestruction();
+        context.setLeakDetection(
+                ReactiveContext.LeakDetection.valueOf(config("leak-detection", "disabled").toUpperCase(ROOT)),
+                Integer.parseInt(config("leak-detection-sampling-interval", "128")),
+                Boolean.parseBoolean(config("leak-detection-destroy", "false")));
         beforeBeanDiscovery.addScope(ReactiveScoped.class, true, false);
     }
 
+    public void indexReactiveBeans(@Observes final ProcessBean<?> processBean) {
+        final var bean = processBean.getBean();
+        if (bean.getScope() == ReactiveScoped.class) {
+            if (processBean.getAnnotated().isAnnotationPresent(BranchLocal.class)) {
+                context.registerBranchLocal(bean);
+            } else {
+                context.register(bean);
+            }
+        }
+    }
+
     public void addRouteContext(@Observes final AfterBeanDiscovery afterBeanDiscovery) {
         afterBeanDiscovery.addContext(context);
         afterBeanDiscovery.addBean() // let the context be injectable
@@ -26,4 +66,76 @@ public class ReactiveCDIScopeExtension implements Extension {
                 .qualifiers(Default.Literal.INSTANCE, Any.Literal.INSTANCE)
                 .createWith(c -> context);
     }
+
+    public void stopDestructionExecutor(@Observes final BeforeShutdown beforeShutdown) {
+        if (destructionExecutor == null) {
+            return;
+        }
+        destructionExecutor.shutdown(); // let pending destructions run
+        try {
+            if (!destructionExecutor.awaitTermination(1, MINUTES)) {
+                Logger.getLogger(getClass().getName()).warning("Some reactive scope destructions did not complete");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        destructionExecutor = null;
+    }
+
+    public void unregisterMetrics(@Observes final BeforeShutdown beforeShutdown) {
+        if (metricsName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+        } catch (final JMException e) {
+            Logger.getLogger(getClass().getName()).warning("Can't unregister " + metricsName + ": " + e.getMessage());
+        }
+        metricsName = null;
+    }
+
+    private void configureDestruction() {
+        final var destruction = ReactiveContext.Destruction.valueOf(config("destruction", "inline").toUpperCase(ROOT));
+        if (destruction == ReactiveContext.Destruction.INLINE) {
+            return;
+        }
+        final int threads = Integer.parseInt(config(
+                "destruction-threads", Integer.toString(Math.max(2, Runtime.getRuntime().availableProcessors()))));
+        final var counter = new AtomicInteger();
+        destructionExecutor = Executors.newFixedThreadPool(threads, task -> {
+            final var thread = new Thread(task, getClass().getName() + "-destruction-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        context.setDestruction(destruction, destructionExecutor,
+                Duration.ofMillis(Long.parseLong(config("destruction-timeout", "1000"))));
+    }
+
+    private ReactiveScopeInstrumentation createInstrumentation(final String value) {
+        switch (value) {
+            case "false":
+                return ReactiveScopeInstrumentation.NOOP;
+            case "true":
+                final var metrics = new ReactiveScopeMetrics();
+                try {
+                    final var name = new ObjectName("com.github.rmannibucau.reactive.cdi:type=ReactiveScope");
+                    ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, name);
+                    metricsName = name;
+                } catch (final JMException e) { // already registered by another container for ex.
+                    Logger.getLogger(getClass().getName()).warning("Can't register reactive scope metrics: " + e.getMessage());
+                }
+                return metrics;
+            default:
+                try {
+                    return ReactiveScopeInstrumentation.class.cast(Thread.currentThread().getContextClassLoader()
+                            .loadClass(value.trim()).getConstructor().newInstance());
+                } catch (final ReflectiveOperationException e) {
+                    throw new IllegalArgumentException("Invalid instrumentation: " + value, e);
+                }
+        }
+    }
+
+    private String config(final String key, final String defaultValue) {
+        return System.getProperty(CONFIGURATION_PREFIX + key, defaultValue);
+    }
 }
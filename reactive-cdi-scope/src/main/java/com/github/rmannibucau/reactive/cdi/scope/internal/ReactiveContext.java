@@ -3,172 +3,514 @@ package com.github.rmannibucau.reactive.cdi.scope.internal;
 import com.github.rmannibucau.reactive.cdi.scope.api.ReactiveScoped;
 import com.github.rmannibucau.reactive.cdi.scope.internal.completion.ReactiveCompletionFuture;
 import com.github.rmannibucau.reactive.cdi.scope.internal.executor.ReactiveExecutor;
+import com.github.rmannibucau.reactive.cdi.scope.internal.executor.ReactiveAffinityExecutorService;
 import com.github.rmannibucau.reactive.cdi.scope.internal.executor.ReactiveExecutorService;
+import com.github.rmannibucau.reactive.cdi.scope.internal.executor.ReactiveScheduledExecutorService;
 import com.github.rmannibucau.reactive.cdi.scope.internal.flow.ReactiveProcessor;
 import com.github.rmannibucau.reactive.cdi.scope.internal.flow.ReactivePublisher;
 import com.github.rmannibucau.reactive.cdi.scope.internal.flow.ReactiveSubscriber;
 import com.github.rmannibucau.reactive.cdi.scope.internal.flow.ReactiveSubscription;
+import com.github.rmannibucau.reactive.cdi.scope.internal.forkjoin.ReactiveForkJoinPool;
+import com.github.rmannibucau.reactive.cdi.scope.internal.forkjoin.ReactiveSpliterator;
+import com.github.rmannibucau.reactive.cdi.scope.spi.ReactiveScopeInstrumentation;
 
 import javax.enterprise.context.ContextNotActiveException;
 import javax.enterprise.context.spi.AlterableContext;
 import javax.enterprise.context.spi.Contextual;
 import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.event.NotificationOptions;
 import javax.enterprise.inject.Vetoed;
-import java.io.Serializable;
 import java.lang.annotation.Annotation;
-import java.util.Map;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
-
-import static java.util.Collections.emptyMap;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Vetoed
 public class ReactiveContext implements AlterableContext {
-    private final ThreadLocal<Map<Contextual<?>, BeanInstanceBag<?>>> instances = new ThreadLocal<>();
+    private final ContextualIndex index = new ContextualIndex();
+    private final Ctx none = new Ctx(this, true, null, null, null, null); // "no context" token, shared to not allocate
+    private final LongAdder activeScopes = new LongAdder();
+    private final LongAdder outstandingScopes = new LongAdder();
+    private ContextBinding binding = new ThreadLocalBinding();
+    private boolean referenceCounting;
+    private ReactiveScopeInstrumentation instrumentation = ReactiveScopeInstrumentation.NOOP;
+    private Destruction destruction = Destruction.INLINE;
+    private Executor destructionExecutor;
+    private long destructionTimeout; // nanoseconds
+    private LeakDetector leakDetector; // null when disabled
 
-    public Flow.Subscription wrapSubscription(final Flow.Subscription delegate) {
-        final var current = current();
-        try {
-            return new ReactiveSubscription(delegate, current);
-        } finally {
-            current.release();
+    /**
+     * Selects how the context is attached to threads, must be called before the context is used (at boot time).
+     *
+     * @param propagation the propagation mode, {@link Propagation#SCOPED_VALUE} falls back on
+     *                    {@link Propagation#THREAD_LOCAL} when the JVM does not support it.
+     */
+    public void setPropagation(final Propagation propagation) {
+        if (propagation == Propagation.SCOPED_VALUE && ScopedValueBinding.isAvailable()) {
+            binding = new ScopedValueBinding();
+        } else {
+            if (propagation == Propagation.SCOPED_VALUE) {
+                Logger.getLogger(ReactiveContext.class.getName())
+                        .warning("ScopedValue is not available on this JVM, falling back on thread local propagation");
+            }
+            binding = new ThreadLocalBinding();
         }
     }
 
-    public <A, B> Flow.Processor<A, B> wrapProcessor(final Flow.Processor<A, B> delegate) {
-        final var current = current();
-        try {
-            return new ReactiveProcessor<>(delegate, current);
-        } finally {
-            current.release();
+    public Propagation getPropagation() {
+        return binding instanceof ScopedValueBinding ? Propagation.SCOPED_VALUE : Propagation.THREAD_LOCAL;
+    }
+
+    /**
+     * When enabled, {@link #finish(Ctx)} only releases the reference of the root and beans are destroyed once all
+     * the wrapped asynchronous branches (executor and scheduled tasks, completion stages, flow subscribers,
+     * fork/join root tasks) are done. Must be called before the context is used (at boot time).
+     *
+     * @param referenceCounting {@code true} to enable reference counting.
+     */
+    public void setReferenceCounting(final boolean referenceCounting) {
+        this.referenceCounting = referenceCounting;
+    }
+
+    public boolean isReferenceCounting() {
+        return referenceCounting;
+    }
+
+    /**
+     * Must be called before the context is used (at boot time).
+     *
+     * @param instrumentation the instrumentation to notify, {@link ReactiveScopeInstrumentation#NOOP} to disable it.
+     */
+    public void setInstrumentation(final ReactiveScopeInstrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    public ReactiveScopeInstrumentation getInstrumentation() {
+        return instrumentation;
+    }
+
+    /**
+     * Selects how beans are destroyed when a scope ends, must be called before the context is used (at boot time).
+     *
+     * @param destruction the strategy.
+     * @param executor    the executor running destructions, ignored for {@link Destruction#INLINE}.
+     * @param timeout     how long {@link Destruction#PARALLEL} waits for the destructions ({@code null} waits until they are done),
+     *                    ignored otherwise.
+     */
+    public void setDestruction(final Destruction destruction, final Executor executor, final Duration timeout) {
+        if (destruction != Destruction.INLINE && executor == null) {
+            throw new IllegalArgumentException("No executor for " + destruction + " destruction");
         }
+        this.destruction = destruction;
+        this.destructionExecutor = executor;
+        this.destructionTimeout = timeout == null ? Long.MAX_VALUE : timeout.toNanos();
     }
 
-    public <A> Flow.Subscriber<A> wrapSubscriber(final Flow.Subscriber<A> delegate) {
-        final var current = current();
-        try {
-            return new ReactiveSubscriber<>(delegate, current);
-        } finally {
-            current.release();
+    public Destruction getDestruction() {
+        return destruction;
+    }
+
+    /**
+     * Reports the scopes garbage collected without having been finished (with the stack starting them),
+     * must be called before the context is used (at boot time).
+     *
+     * @param leakDetection    the detection level.
+     * @param samplingInterval for {@link LeakDetection#SAMPLED}, one scope every {@code samplingInterval} is tracked.
+     * @param destroyLeaked    {@code true} to finish the leaked scopes (their beans are destroyed).
+     */
+    public void setLeakDetection(final LeakDetection leakDetection, final int samplingInterval, final boolean destroyLeaked) {
+        switch (leakDetection) {
+            case DISABLED:
+                leakDetector = null;
+                break;
+            case PARANOID:
+                leakDetector = new LeakDetector(this, 1, destroyLeaked);
+                break;
+            default:
+                if (samplingInterval <= 0) {
+                    throw new IllegalArgumentException("Invalid sampling interval: " + samplingInterval);
+                }
+                leakDetector = new LeakDetector(this, samplingInterval, destroyLeaked);
         }
     }
 
+    /**
+     * @return the number of leaked scopes detected, only the tracked ones are counted.
+     */
+    public long getLeakedScopes() {
+        return leakDetector == null ? 0 : leakDetector.getLeaks();
+    }
+
+    /**
+     * @return the number of scopes started and not yet destroyed, only tracked with reference counting.
+     */
+    public long getActiveScopes() {
+        return activeScopes.sum();
+    }
+
+    /**
+     * @return the number of finished scopes still waiting for asynchronous branches, only tracked with reference
+     * counting. A value never going down is a leak (a branch never completed, a future never completed for ex.).
+     */
+    public long getOutstandingScopes() {
+        return outstandingScopes.sum();
+    }
+
+    public Flow.Subscription wrapSubscription(final Flow.Subscription delegate) {
+        return new ReactiveSubscription(delegate, current());
+    }
+
+    public <A, B> Flow.Processor<A, B> wrapProcessor(final Flow.Processor<A, B> delegate) {
+        return new ReactiveProcessor<>(delegate, current());
+    }
+
+    public <A> Flow.Subscriber<A> wrapSubscriber(final Flow.Subscriber<A> delegate) {
+        return new ReactiveSubscriber<>(delegate, current());
+    }
+
     public <A> Flow.Publisher<A> wrapPublisher(final Flow.Publisher<A> delegate) {
-        final var current = current();
-        try {
-            return new ReactivePublisher<>(delegate, current);
-        } finally {
-            current.release();
-        }
+        return new ReactivePublisher<>(delegate, current());
     }
 
     public Runnable wrapRunnable(final Runnable delegate) {
-        final var current = current();
-        try {
-            return current.wrap(delegate);
-        } finally {
-            current.release();
-        }
+        return current().wrap(delegate);
     }
 
     public <A, B> BiConsumer<A, B> wrapBiConsumer(final BiConsumer<A, B> delegate) {
         final var current = current();
-        try {
-            return (a, b) -> current.wrap(() -> delegate.accept(a, b)).run();
-        } finally {
-            current.release();
-        }
+        return (a, b) -> {
+            final var previous = push(current);
+            try {
+                delegate.accept(a, b);
+            } finally {
+                reset(previous);
+            }
+        };
     }
 
     public <A, B, C> BiFunction<A, B, C> wrapBiFunction(final BiFunction<A, B, C> delegate) {
         final var current = current();
-        try {
-            return (a, b) -> current.wrap(() -> delegate.apply(a, b)).get();
-        } finally {
-            current.release();
-        }
+        return (a, b) -> {
+            final var previous = push(current);
+            try {
+                return delegate.apply(a, b);
+            } finally {
+                reset(previous);
+            }
+        };
     }
 
     public <A, B> Function<A, B> wrapFunction(final Function<A, B> delegate) {
         final var current = current();
-        try {
-            return a -> current.wrap(() -> delegate.apply(a)).get();
-        } finally {
-            current.release();
-        }
+        return a -> {
+            final var previous = push(current);
+            try {
+                return delegate.apply(a);
+            } finally {
+                reset(previous);
+            }
+        };
     }
 
     public <A> Consumer<A> wrapConsumer(final Consumer<A> delegate) {
-        return this.<A, Void>wrapFunction(a -> {
-            delegate.accept(a);
-            return null;
-        })::apply;
+        final var current = current();
+        return a -> {
+            final var previous = push(current);
+            try {
+                delegate.accept(a);
+            } finally {
+                reset(previous);
+            }
+        };
     }
 
     public <T> CompletableFuture<T> wrapCompletableFuture(final CompletableFuture<T> promise) {
-        return new ReactiveCompletionFuture<>(this, promise);
+        return ReactiveCompletionFuture.wrap(this, promise);
     }
 
     public <T> CompletionStage<T> wrapCompletionStage(final CompletionStage<T> promise) {
-        return new ReactiveCompletionFuture<>(this, promise);
+        return ReactiveCompletionFuture.wrap(this, promise);
     }
 
     public Executor wrapExecutor(final Executor executor) {
         return new ReactiveExecutor(this, executor);
     }
 
+    /**
+     * Options for {@code Event.fireAsync(event, options)} running the asynchronous observers in the scope of the firing
+     * thread (on the common pool). The scope is acquired until the observers ran when reference counting is enabled.
+     *
+     * @return options to pass to {@code fireAsync}.
+     */
+    public NotificationOptions newNotificationOptions() {
+        return wrapNotificationOptions(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor the executor running the asynchronous observers.
+     * @return options to pass to {@code Event.fireAsync(event, options)} running the observers in the scope of the firing thread.
+     */
+    public NotificationOptions wrapNotificationOptions(final Executor executor) {
+        return NotificationOptions.ofExecutor(wrapExecutor(executor));
+    }
+
     public ExecutorService wrapExecutorService(final ExecutorService executor) {
         return new ReactiveExecutorService(this, executor);
     }
 
+    /**
+     * Wraps a scheduler, the tasks are bound to the context of the thread scheduling them.
+     * Wrapping only costs a task wrapper so a single shared scheduler can serve all scopes,
+     * for a lot of pending timeouts prefer a {@link java.util.concurrent.ScheduledThreadPoolExecutor}
+     * with {@code setRemoveOnCancelPolicy(true)} so cancelled timeouts do not stay in its queue.
+     *
+     * @param executor the scheduler to wrap.
+     * @return a context aware scheduler.
+     */
+    public ScheduledExecutorService wrapScheduledExecutorService(final ScheduledExecutorService executor) {
+        return new ReactiveScheduledExecutorService(this, executor);
+    }
+
+    public ReactiveForkJoinPool wrapForkJoinPool(final ForkJoinPool pool) {
+        return new ReactiveForkJoinPool(this, pool);
+    }
+
+    /**
+     * Makes {@code stream} parallel and binds the current context in the workers processing it,
+     * the binding is done once per split and not per element.
+     * Operations must be chained on the returned stream to be executed with the context.
+     *
+     * @param stream the stream to wrap.
+     * @param <T>    the type of the elements.
+     * @return a parallel stream propagating the current context.
+     */
+    public <T> Stream<T> wrapParallelStream(final Stream<T> stream) {
+        return StreamSupport.stream(new ReactiveSpliterator<>(stream.spliterator(), current()), true)
+                .onClose(stream::close);
+    }
+
+    /**
+     * Creates an executor service starting a virtual thread per task (Java 21 and later),
+     * each task is bound to the context of the submitting thread.
+     * It is more efficient with {@link Propagation#SCOPED_VALUE} since virtual threads then never use a thread local.
+     * The returned executor owns its threads so it should be created once and shut down when no more needed.
+     *
+     * @return a context aware virtual thread per task executor.
+     */
+    public ExecutorService wrapVirtualThreadExecutor() {
+        return new ReactiveExecutorService(this, VirtualThreads.newThreadPerTaskExecutor(getClass().getName() + "-"));
+    }
+
+    /**
+     * Creates a pool routing the tasks of a scope to the same worker which keeps the scope bound between them,
+     * it fits pipelines hopping a lot between stages of the same request. See {@link ReactiveAffinityExecutorService}.
+     * The returned executor owns its threads so it should be created once and shut down when no more needed.
+     *
+     * @param parallelism the number of workers.
+     * @return a context aware executor service with scope affinity.
+     */
+    public ExecutorService newAffinityExecutorService(final int parallelism) {
+        final var counter = new AtomicInteger();
+        return new ReactiveAffinityExecutorService(this, parallelism, task -> {
+            final var thread = new Thread(task, getClass().getName() + "-affinity-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     public Ctx start() {
-        final var bags = new ConcurrentHashMap<Contextual<?>, BeanInstanceBag<?>>();
-        instances.set(bags);
-        return new Ctx(this, true, Thread.currentThread(), bags);
+        final var root = newRoot(Thread.currentThread());
+        binding.set(root.snapshot);
+        return root;
     }
 
+    /**
+     * Same as {@link #start()} but the scope is only created when it is used: first lookup of a bean of the scope,
+     * {@link Ctx#fork()} or {@link Ctx#acquire()} with reference counting, whatever the thread it is propagated to.
+     * Until then nothing is allocated but the returned root, and finishing it is a no-op.
+     *
+     * @return the root of the scope, to finish and reset as the one returned by {@link #start()}.
+     */
+    public Ctx startLazily() {
+        final var lazy = new LazyStart(this);
+        final var root = new Ctx(this, lazy, new Ctx(this, lazy, null));
+        binding.set(root.snapshot);
+        return root;
+    }
+
+    private Ctx newRoot(final Thread thread) {
+        final var storage = new BeanStorage(index);
+        storage.startToken = instrumentation.onScopeStart();
+        final var snapshot = new Ctx(this, false, null, storage, null, null);
+        if (referenceCounting) {
+            activeScopes.increment();
+            return track(new Ctx(this, true, thread, storage, snapshot, new ScopeReference(this, storage, true)));
+        }
+        return track(new Ctx(this, true, thread, storage, snapshot, null));
+    }
+
+    /**
+     * Destroys the beans of the scope, with reference counting it only releases the root reference
+     * and the destruction happens when the last branch is done. Finishing twice is a no-op in that mode.
+     * Once destroyed, the scope is no more active for the threads still bound to it, only the destructions
+     * ({@code @PreDestroy}, disposers) still resolve the existing instances of the scope.
+     *
+     * @param ctx the root context returned by {@link #start()} or {@link Ctx#fork()}.
+     */
     public void finish(final Ctx ctx) {
-        final var bags = ctx.bags;
-        if (bags == null) {
+        if (ctx.lazy != null) {
+            final var started = ctx.lazy.finish();
+            if (started != null) {
+                finish(started);
+            }
+            return;
+        }
+        final var storage = ctx.storage;
+        if (storage == null) {
+            return;
+        }
+        if (ctx.leak != null) {
+            ctx.leak.finished();
+        }
+        if (ctx.reference != null) {
+            ctx.reference.close();
             return;
         }
-        bags.forEach((k, v) -> doDestroy(Contextual.class.cast(k), v));
-        bags.clear();
+        storage.destroyed = true; // threads still bound to it see it inactive instead of recreating beans in it
+        destroy(storage);
     }
 
-    public Ctx current() {
-        final var bags = instances.get();
-        final var thread = Thread.currentThread();
-        if (bags == null) {
-            instances.remove();
-            return new Ctx(this, true, thread, emptyMap());
+    /**
+     * Runs {@code task} in a new scope finished when the returned stage completes, it is the servlet free way
+     * to start a scope per request (event loop servers for ex.). The calling thread is unbound when the method
+     * returns so it can serve other requests while the stage is pending.
+     *
+     * @param task the request handling, its callbacks should use the context propagation (wrapped executors etc...).
+     * @param <T>  the type of the result.
+     * @return a stage completing once the scope is finished with the outcome of the one returned by {@code task}.
+     */
+    public <T> CompletionStage<T> runInScope(final Supplier<? extends CompletionStage<T>> task) {
+        final var root = start();
+        try {
+            return task.get().whenComplete((result, error) -> finish(root));
+        } catch (final RuntimeException | Error e) {
+            finish(root);
+            throw e;
+        } finally {
+            reset(root);
         }
-        return new Ctx(this, false, thread, bags);
     }
 
+    // the root is unreachable, finish it on behalf of its owner
+    void finishLeaked(final BeanStorage storage) {
+        if (referenceCounting) {
+            release(storage, true);
+        } else {
+            storage.destroyed = true;
+            destroy(storage);
+        }
+    }
+
+    private Ctx track(final Ctx root) {
+        final var detector = leakDetector;
+        if (detector != null) {
+            root.leak = detector.track(root, root.storage);
+        }
+        return root;
+    }
+
+    void release(final BeanStorage storage, final boolean root) {
+        if (storage.release()) {
+            if (!root) {
+                outstandingScopes.decrement();
+            }
+            activeScopes.decrement();
+            storage.destroyed = true;
+            destroy(storage);
+            storage.parentReference.close();
+        } else if (root) {
+            outstandingScopes.increment();
+        }
+    }
+
+    /**
+     * Gives a dense index to a contextual of this scope, it enables to store its instances in an array slot
+     * instead of a map. It is done at boot time by the extension for all discovered {@link ReactiveScoped} beans.
+     *
+     * @param contextual the contextual to index.
+     */
+    public void register(final Contextual<?> contextual) {
+        index.register(contextual);
+    }
+
+    /**
+     * Same as {@link #register(Contextual)} for a {@link com.github.rmannibucau.reactive.cdi.scope.api.BranchLocal}
+     * contextual: scopes created with {@link Ctx#fork()} get their own instance of it.
+     *
+     * @param contextual the branch local contextual.
+     */
+    public void registerBranchLocal(final Contextual<?> contextual) {
+        index.registerBranchLocal(contextual);
+    }
+
+    /**
+     * @return the snapshot of the context bound to the current thread, it is reused and does not allocate.
+     */
+    public Ctx current() {
+        final var current = binding.get();
+        return current == null ? none : current;
+    }
+
+    /**
+     * Binds {@code ctx} to the current thread.
+     *
+     * @param ctx the context to bind.
+     * @return the token to pass to {@link #reset(Ctx)} to restore the previous state (it is not allocated).
+     */
     public Ctx push(final Ctx ctx) {
-        return setState(ctx, Thread.currentThread());
+        instrumentation.onHop();
+        final var previous = binding.get();
+        binding.set(ctx.bound());
+        return previous == null ? none : previous;
     }
 
     public Ctx reset(final Ctx ctx) {
-        final var thread = Thread.currentThread();
-        if (thread != ctx.originalThread) {
+        if (ctx.originalThread != null && ctx.originalThread != Thread.currentThread()) {
             throw new IllegalStateException("Restoring a context on a different thread");
         }
-        if (ctx.removeOnReset) {
-            instances.remove();
-            return new Ctx(this, true, thread, emptyMap());
-        }
-        return setState(ctx, thread);
+        final var previous = binding.get();
+        binding.set(ctx.removeOnReset ? null : ctx.bound());
+        return previous == null ? none : previous;
+    }
+
+    /**
+     * Unbinds any context from the current thread, for integrations restoring an empty state
+     * without the token returned by {@link #push(Ctx)}.
+     */
+    public void unbind() {
+        binding.set(null);
     }
 
     @Override
@@ -178,141 +520,514 @@ public class ReactiveContext implements AlterableContext {
 
     @Override
     public <T> T get(final Contextual<T> component, final CreationalContext<T> creationalContext) {
-        final var bags = requireBags();
-        BeanInstanceBag<T> bag = (BeanInstanceBag<T>) bags.get(component);
-        if (bag == null) {
-            bag = new BeanInstanceBag<>(creationalContext);
-            final BeanInstanceBag<?> existing = bags.putIfAbsent(component, bag);
-            if (existing != null) {
-                bag = (BeanInstanceBag<T>) existing;
+        final var storage = requireStorage();
+        if (creationalContext == null || storage.destroyed) { // no creation while the scope is destroyed
+            final var bag = storage.get(component);
+            final var instance = bag == null ? null : bag.instance;
+            if (instance == null && creationalContext != null) {
+                throw new ContextNotActiveException("@" + getScope().getName() + " is being destroyed");
             }
+            return instance;
+        }
+        final var bag = storage.getOrCreate(component, creationalContext);
+        final var existing = bag.instance;
+        if (existing != null) {
+            return existing;
         }
-        if (bag.instance != null) {
-            return bag.instance;
+        final var creation = new BeanInstanceBag.Creation<T>();
+        final var pending = bag.startCreation(creation);
+        if (pending == null) {
+            return create(component, creationalContext, bag, creation);
         }
-        if (creationalContext == null) {
-            return null;
+        if (pending.creator == Thread.currentThread()) {
+            throw new IllegalStateException("Circular creation of " + component);
         }
-        synchronized (bag) {
-            if (bag.instance != null) {
-                return bag.instance;
+        try {
+            return pending.join();
+        } catch (final CompletionException ce) {
+            throw unwrap(ce);
+        }
+    }
+
+    /**
+     * Looks up an instance without blocking: if another branch is creating it, the returned stage completes
+     * when the creation is done, otherwise the instance is created by the caller.
+     * Callbacks of the returned stage are bound to the current context.
+     *
+     * @param component         the bean.
+     * @param creationalContext the creational context to use if the caller creates the instance.
+     * @param <T>               the type of the instance.
+     * @return the instance as a stage.
+     */
+    public <T> CompletionStage<T> getAsync(final Contextual<T> component, final CreationalContext<T> creationalContext) {
+        final var storage = requireStorage();
+        if (storage.destroyed) {
+            final var result = new ReactiveCompletionFuture<T>(this);
+            try {
+                result.complete(get(component, creationalContext));
+            } catch (final RuntimeException e) {
+                result.completeExceptionally(e);
             }
-            return bag.instance = component.create(creationalContext);
+            return result;
+        }
+        final var bag = storage.getOrCreate(component, creationalContext);
+        final var result = new ReactiveCompletionFuture<T>(this);
+        final var existing = bag.instance;
+        if (existing != null) {
+            result.complete(existing);
+            return result;
         }
+        final var creation = new BeanInstanceBag.Creation<T>();
+        final var pending = bag.startCreation(creation);
+        if (pending == null) {
+            try {
+                result.complete(create(component, creationalContext, bag, creation));
+            } catch (final RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        } else if (pending.creator == Thread.currentThread()) {
+            result.completeExceptionally(new IllegalStateException("Circular creation of " + component));
+        } else {
+            pending.whenComplete((instance, error) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(instance);
+                }
+            });
+        }
+        return result;
+    }
+
+    private <T> T create(final Contextual<T> component, final CreationalContext<T> creationalContext,
+                         final BeanInstanceBag<T> bag, final BeanInstanceBag.Creation<T> creation) {
+        final T instance;
+        try {
+            instance = component.create(creationalContext);
+        } catch (final RuntimeException | Error e) {
+            bag.creationFailed(creation);
+            creation.completeExceptionally(e);
+            throw e;
+        }
+        bag.instance = instance;
+        creation.complete(instance);
+        instrumentation.onBeanCreated(component);
+        return instance;
+    }
+
+    private RuntimeException unwrap(final CompletionException ce) {
+        final var cause = ce.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return ce;
     }
 
     @Override
     public <T> T get(final Contextual<T> component) {
-        final var wrapper = requireBags().get(component);
-        return wrapper == null ? null : (T) wrapper.instance;
+        final var wrapper = requireStorage().get(component);
+        return wrapper == null ? null : wrapper.instance;
     }
 
     @Override
     public boolean isActive() {
-        final var bags = instances.get();
-        if (bags == null) {
-            instances.remove();
+        final var current = binding.get();
+        if (current == null) {
+            return false;
         }
-        return bags != null;
+        if (current.lazy != null) {
+            return current.lazy.isActive();
+        }
+        return !current.storage.isDestroyed() || current == current.storage.destruction;
     }
 
     @Override
     public void destroy(final Contextual<?> contextual) {
-        final var bags = instances.get();
-        if (bags == null) {
-            instances.remove();
+        final var current = binding.get();
+        if (current == null) {
+            return;
+        }
+        final var storage = current.lazy == null ? current.storage : current.lazy.peek();
+        if (storage == null || !storage.owns(contextual)) { // lazy scope never used or bean of a parent scope
             return;
         }
-        final BeanInstanceBag<Object> instance = (BeanInstanceBag<Object>) bags.get(contextual);
+        final BeanInstanceBag<Object> instance = storage.get(Contextual.class.cast(contextual));
         if (instance == null) {
             return;
         }
         if (instance.instance != null) {
             doDestroy(Contextual.class.cast(contextual), instance);
-            bags.remove(contextual);
+            storage.remove(contextual, instance);
         }
     }
 
-    private Map<Contextual<?>, BeanInstanceBag<?>> requireBags() {
-        final var bags = instances.get();
-        if (bags == null) {
-            instances.remove();
-            throw new ContextNotActiveException("@" + getScope().getName() + " is not active");
+    private void destroy(final BeanStorage storage) {
+        if (storage.isEmpty()) { // nothing to destroy, don't hop to the destruction executor
+            destroyInline(storage);
+            return;
+        }
+        // the storage is marked destroyed, the destroying threads bind this context to still read its instances
+        final var destroying = new Ctx(this, false, null, storage, null, null);
+        storage.destruction = destroying;
+        switch (destruction) {
+            case OFFLOAD:
+                final var task = destroying.wrap(() -> destroyInline(storage));
+                try {
+                    destructionExecutor.execute(task);
+                } catch (final RejectedExecutionException ree) { // shutting down
+                    task.run();
+                }
+                break;
+            case PARALLEL:
+                binding.run(destroying, () -> destroyInParallel(storage, destroying));
+                break;
+            default:
+                binding.run(destroying, () -> destroyInline(storage));
         }
-        return bags;
     }
 
-    private <T> void doDestroy(final Contextual<T> contextual, final BeanInstanceBag<T> instance) {
-        synchronized (instance) {
-            if (instance.destroyed) {
-                return;
+    private void destroyInline(final BeanStorage storage) {
+        final long token = instrumentation.onScopeDestroyStart();
+        storage.forEach((k, v) -> doDestroy(Contextual.class.cast(k), v));
+        storage.clear();
+        instrumentation.onScopeDestroyed(storage.startToken, token);
+    }
+
+    private void destroyInParallel(final BeanStorage storage, final Ctx destroying) {
+        final long token = instrumentation.onScopeDestroyStart();
+        final var bags = new ArrayList<BeanInstanceBag<?>>();
+        storage.forEach((k, v) -> bags.add(v));
+        if (bags.size() <= 1) {
+            bags.forEach(bag -> doDestroy(Contextual.class.cast(bag.contextual), bag));
+        } else {
+            final var latch = new CountDownLatch(bags.size());
+            for (final var bag : bags) {
+                final var task = destroying.wrap(() -> {
+                    try {
+                        doDestroy(Contextual.class.cast(bag.contextual), bag);
+                    } finally {
+                        latch.countDown();
+                    }
+                });
+                try {
+                    destructionExecutor.execute(task);
+                } catch (final RejectedExecutionException ree) {
+                    task.run();
+                }
+            }
+            try {
+                if (!latch.await(destructionTimeout, TimeUnit.NANOSECONDS)) {
+                    Logger.getLogger(ReactiveContext.class.getName())
+                            .warning(latch.getCount() + " bean(s) still being destroyed after the deadline, not waiting for them");
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-            instance.destroyed = true;
-            contextual.destroy(instance.instance, instance.creationalContext);
         }
+        storage.clear(); // after the destructions, they can use the other instances
+        instrumentation.onScopeDestroyed(storage.startToken, token);
     }
 
-    private Ctx setState(final Ctx ctx, final Thread thread) {
-        final var bags = instances.get();
-        final var previous = new Ctx(this, false, thread, bags);
-        if (ctx.bags == null) {
-            instances.remove();
-        } else {
-            instances.set(ctx.bags);
+    private BeanStorage requireStorage() {
+        final var current = binding.get();
+        final var storage = current == null ? null : current.scopeStorage();
+        if (storage == null || (storage.isDestroyed() && current != storage.destruction)) {
+            throw new ContextNotActiveException("@" + getScope().getName() + " is not active");
+        }
+        return storage;
+    }
+
+    private <T> void doDestroy(final Contextual<T> contextual, final BeanInstanceBag<T> instance) {
+        if (!instance.markDestroyed()) {
+            return;
+        }
+        var value = instance.instance;
+        if (value == null) { // never created or being created
+            final var pending = instance.creation();
+            if (pending == null || pending.creator == Thread.currentThread()) {
+                return;
+            }
+            try {
+                value = pending.join();
+            } catch (final CompletionException | CancellationException e) { // creation failed
+                return;
+            }
         }
-        return previous;
+        contextual.destroy(value, instance.creationalContext);
     }
 
+    /**
+     * A context state. The instances returned by {@link #current()} and {@link #push(Ctx)} are immutable
+     * snapshots shared by all threads using the same context so they can be captured without allocating.
+     * The one returned by {@link #start()} is the root of the context, it can only be reset in the starting thread.
+     */
     public static class Ctx {
         private final ReactiveContext ctx;
         private final boolean removeOnReset;
         private final Thread originalThread;
-        private final Map<Contextual<?>, BeanInstanceBag<?>> bags;
+        private final BeanStorage storage;
+        private final Ctx snapshot; // the instance bound to threads
+        private final ScopeReference reference; // root one when reference counting is enabled
+        private final LazyStart lazy; // roots returned by startLazily()
+        private LeakDetector.Tracker leak; // roots sampled by the leak detector
 
         private Ctx(final ReactiveContext root,
                     final boolean removeOnReset, final Thread originalThread,
-                    final Map<Contextual<?>, BeanInstanceBag<?>> bags) {
+                    final BeanStorage storage,
+                    final Ctx snapshot, final ScopeReference reference) {
             this.ctx = root;
             this.removeOnReset = removeOnReset;
             this.originalThread = originalThread;
-            this.bags = bags;
+            this.storage = storage;
+            this.snapshot = snapshot == null ? this : snapshot;
+            this.reference = reference;
+            this.lazy = null;
+        }
+
+        private Ctx(final ReactiveContext root, final LazyStart lazy, final Ctx snapshot) { // null snapshot: it is the snapshot
+            this.ctx = root;
+            this.removeOnReset = snapshot != null;
+            this.originalThread = snapshot != null ? Thread.currentThread() : null;
+            this.storage = null;
+            this.snapshot = snapshot == null ? this : snapshot;
+            this.reference = null;
+            this.lazy = lazy;
+        }
+
+        /**
+         * Keeps the scope alive until the returned reference is closed when reference counting is enabled.
+         * {@code wrap*} methods do not acquire references since wrapped tasks can run any number of times,
+         * wrappers with a known completion (executors, completion stages, subscribers) do it.
+         *
+         * @return a reference to close when the branch is done, {@link ScopeReference#NONE} when not counting.
+         */
+        public ScopeReference acquire() {
+            if (!ctx.referenceCounting) {
+                return ScopeReference.NONE;
+            }
+            final var scope = scopeStorage();
+            if (scope == null || !scope.retain()) {
+                return ScopeReference.NONE;
+            }
+            return new ScopeReference(ctx, scope, false);
+        }
+
+        /**
+         * @return {@code false} for the token returned by {@link ReactiveContext#current()} when no context is bound.
+         */
+        public boolean hasScope() {
+            return storage != null || lazy != null;
+        }
+
+        /**
+         * Creates a child scope for a branch of a fan-out. It resolves the beans of this scope except the
+         * {@link com.github.rmannibucau.reactive.cdi.scope.api.BranchLocal} ones which are created in the child.
+         * The child is not bound, use its {@code wrap*} methods or {@link #enter()}, and it must be finished
+         * with {@link ReactiveContext#finish(Ctx)} independently of this scope, it only destroys its own beans.
+         * With reference counting the child holds a reference on this scope until it is destroyed,
+         * otherwise this scope must not be finished before its children.
+         *
+         * @return the root of the child scope.
+         */
+        public Ctx fork() {
+            final var parent = scopeStorage();
+            if (parent == null) {
+                throw new ContextNotActiveException("@" + ctx.getScope().getName() + " is not active");
+            }
+            final var child = new BeanStorage(ctx.index, parent);
+            child.startToken = ctx.instrumentation.onScopeStart();
+            final var childSnapshot = new Ctx(ctx, false, null, child, null, null);
+            if (ctx.referenceCounting) {
+                child.parentReference = acquire();
+                ctx.activeScopes.increment();
+                return ctx.track(new Ctx(ctx, false, null, child, childSnapshot, new ScopeReference(ctx, child, true)));
+            }
+            return ctx.track(new Ctx(ctx, false, null, child, childSnapshot, null));
+        }
+
+        /**
+         * Same as {@link #wrap(Runnable)} but closes {@code reference} once the task ran.
+         *
+         * @param task      the task to wrap.
+         * @param reference the reference to release after the execution.
+         * @return the wrapped task.
+         */
+        public Runnable wrap(final Runnable task, final ScopeReference reference) {
+            if (reference == ScopeReference.NONE) {
+                return wrap(task);
+            }
+            final var bound = bound();
+            return () -> {
+                try {
+                    ctx.instrumentation.onHop();
+                    ctx.binding.run(bound, task);
+                } finally {
+                    reference.close();
+                }
+            };
+        }
+
+        public <T> Callable<T> wrapCallable(final Callable<T> task, final ScopeReference reference) {
+            if (reference == ScopeReference.NONE) {
+                return wrapCallable(task);
+            }
+            final var bound = bound();
+            return () -> {
+                try {
+                    ctx.instrumentation.onHop();
+                    return ctx.binding.call(bound, task);
+                } finally {
+                    reference.close();
+                }
+            };
         }
 
         public Runnable wrap(final Runnable task) {
-            return wrap(() -> {
-                task.run();
-                return null;
-            })::get;
+            final var bound = bound();
+            return () -> {
+                ctx.instrumentation.onHop();
+                ctx.binding.run(bound, task);
+            };
         }
 
         public <T> Supplier<T> wrap(final Supplier<T> task) {
-            final var current = ctx.current();
-            try {
-                return () -> {
-                    final var previous = ctx.push(Ctx.this);
-                    try {
-                        return task.get();
-                    } finally {
-                        previous.release();
-                    }
-                };
-            } finally {
-                current.release();
+            final var bound = bound();
+            return () -> {
+                ctx.instrumentation.onHop();
+                return ctx.binding.get(bound, task);
+            };
+        }
+
+        public <T> Callable<T> wrapCallable(final Callable<T> task) {
+            final var bound = bound();
+            return () -> {
+                ctx.instrumentation.onHop();
+                return ctx.binding.call(bound, task);
+            };
+        }
+
+        /**
+         * Binds this context to the current thread unless it is already bound (nested signals of a synchronous
+         * delivery run for ex.), in that case it only costs a read of the binding.
+         *
+         * @return the token to pass to {@link #exit(Ctx)}, {@code null} if nothing was bound.
+         */
+        public Ctx enter() {
+            final var bound = bound();
+            final var current = ctx.binding.get();
+            if (current == bound) {
+                return null;
+            }
+            ctx.instrumentation.onHop();
+            ctx.binding.set(bound);
+            return current == null ? ctx.none : current;
+        }
+
+        public void exit(final Ctx previous) {
+            if (previous != null) {
+                ctx.reset(previous);
             }
         }
 
         public void release() {
             ctx.reset(this);
         }
+
+        private Ctx bound() {
+            return storage == null && lazy == null ? null : snapshot;
+        }
+
+        private BeanStorage scopeStorage() {
+            return lazy == null ? storage : lazy.storage();
+        }
     }
 
-    private static class BeanInstanceBag<T> implements Serializable {
-        private final CreationalContext<T> creationalContext;
-        private volatile boolean destroyed = false;
-        private volatile T instance;
+    // the scope of a root returned by startLazily(), created by the first thread using it
+    private static final class LazyStart {
+        private final ReactiveContext context;
+        private volatile Ctx root;
+        private volatile boolean finished;
+
+        private LazyStart(final ReactiveContext context) {
+            this.context = context;
+        }
+
+        private BeanStorage storage() {
+            final var started = root;
+            if (started != null) {
+                return started.storage;
+            }
+            synchronized (this) {
+                if (root == null && !finished) {
+                    root = context.newRoot(null);
+                }
+                return root == null ? null : root.storage;
+            }
+        }
+
+        private BeanStorage peek() {
+            final var started = root;
+            return started == null ? null : started.storage;
+        }
+
+        private boolean isActive() {
+            final var started = root;
+            return started == null ? !finished : !started.storage.isDestroyed();
+        }
 
-        private BeanInstanceBag(final CreationalContext<T> creationalContext) {
-            this.creationalContext = creationalContext;
+        private synchronized Ctx finish() {
+            finished = true;
+            return root;
         }
     }
+
+    public enum Destruction {
+        /**
+         * Beans are destroyed by the thread ending the scope (default).
+         */
+        INLINE,
+
+        /**
+         * The destruction is submitted to an executor and the thread ending the scope does not wait for it.
+         */
+        OFFLOAD,
+
+        /**
+         * Each bean is destroyed in an executor and the thread ending the scope waits for them up to a deadline.
+         */
+        PARALLEL
+    }
+
+    public enum LeakDetection {
+        /**
+         * No tracking (default).
+         */
+        DISABLED,
+
+        /**
+         * One scope every sampling interval is tracked.
+         */
+        SAMPLED,
+
+        /**
+         * All scopes are tracked, for tests and troubleshooting.
+         */
+        PARANOID
+    }
+
+    public enum Propagation {
+        /**
+         * The context is stored in a thread local set and reset on each hop (default).
+         */
+        THREAD_LOCAL,
+
+        /**
+         * Wrapped tasks are bound with a {@code ScopedValue} (Java 21 and later), no thread local is used
+         * in threads only running wrapped tasks (virtual threads of {@link #wrapVirtualThreadExecutor()} for ex.).
+         */
+        SCOPED_VALUE
+    }
 }
@@ -0,0 +1,43 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A reference on a scope instance when reference counting is enabled: beans are destroyed once the root
+ * was finished and all references are closed. Closing is idempotent.
+ */
+public final class ScopeReference implements AutoCloseable {
+    /**
+     * Returned when reference counting is disabled or the scope is no more alive, closing it does nothing.
+     */
+    public static final ScopeReference NONE = new ScopeReference(null, null, false);
+
+    private static final VarHandle CLOSED;
+
+    static {
+        try {
+            CLOSED = MethodHandles.lookup().findVarHandle(ScopeReference.class, "closed", boolean.class);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final ReactiveContext context;
+    private final BeanStorage storage;
+    private final boolean root;
+    private volatile boolean closed;
+
+    ScopeReference(final ReactiveContext context, final BeanStorage storage, final boolean root) {
+        this.context = context;
+        this.storage = storage;
+        this.root = root;
+    }
+
+    @Override
+    public void close() {
+        if (storage != null && CLOSED.compareAndSet(this, false, true)) {
+            context.release(storage, root);
+        }
+    }
+}
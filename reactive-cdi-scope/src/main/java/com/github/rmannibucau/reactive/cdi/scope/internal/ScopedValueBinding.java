@@ -0,0 +1,158 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Binds wrapped tasks with a {@code java.lang.ScopedValue} (Java 21 and later) instead of a thread local
+ * so virtual threads never get a thread local map. {@code push}/{@code reset} done inside a bound task
+ * only mutate the binding of the task, outside of any binding (or in threads inheriting the binding)
+ * it falls back on a thread local.
+ * The API is looked up reflectively since the module targets Java 11.
+ */
+class ScopedValueBinding extends ContextBinding {
+    private static final MethodHandle NEW_INSTANCE;
+    private static final MethodHandle WHERE;
+    private static final MethodHandle RUN;
+    private static final MethodHandle IS_BOUND;
+    private static final MethodHandle GET;
+
+    static {
+        MethodHandle newInstance = null;
+        MethodHandle where = null;
+        MethodHandle run = null;
+        MethodHandle isBound = null;
+        MethodHandle get = null;
+        try {
+            final var lookup = MethodHandles.publicLookup();
+            final var scopedValue = Class.forName("java.lang.ScopedValue");
+            final var carrier = Class.forName("java.lang.ScopedValue$Carrier");
+            newInstance = lookup.findStatic(scopedValue, "newInstance", methodType(scopedValue))
+                    .asType(methodType(Object.class));
+            where = lookup.findStatic(scopedValue, "where", methodType(carrier, scopedValue, Object.class))
+                    .asType(methodType(Object.class, Object.class, Object.class));
+            run = lookup.findVirtual(carrier, "run", methodType(void.class, Runnable.class))
+                    .asType(methodType(void.class, Object.class, Runnable.class));
+            isBound = lookup.findVirtual(scopedValue, "isBound", methodType(boolean.class))
+                    .asType(methodType(boolean.class, Object.class));
+            get = lookup.findVirtual(scopedValue, "get", methodType(Object.class))
+                    .asType(methodType(Object.class, Object.class));
+        } catch (final ClassNotFoundException | NoSuchMethodException | IllegalAccessException e) {
+            newInstance = null;
+        }
+        NEW_INSTANCE = newInstance;
+        WHERE = where;
+        RUN = run;
+        IS_BOUND = isBound;
+        GET = get;
+    }
+
+    private final ThreadLocalBinding fallback = new ThreadLocalBinding();
+    private final Object key;
+
+    ScopedValueBinding() {
+        if (!isAvailable()) {
+            throw new IllegalStateException("ScopedValue is not available on this JVM");
+        }
+        try {
+            key = NEW_INSTANCE.invokeExact();
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static boolean isAvailable() {
+        return NEW_INSTANCE != null;
+    }
+
+    @Override
+    ReactiveContext.Ctx get() {
+        final var holder = holder();
+        if (holder == null) {
+            return fallback.get();
+        }
+        if (holder.owner == Thread.currentThread()) {
+            return holder.value;
+        }
+        final var local = fallback.get(); // inherited binding, read only
+        return local != null ? local : holder.value;
+    }
+
+    @Override
+    void set(final ReactiveContext.Ctx snapshot) {
+        final var holder = holder();
+        if (holder != null && holder.owner == Thread.currentThread()) {
+            holder.value = snapshot;
+        } else {
+            fallback.set(snapshot);
+        }
+    }
+
+    @Override
+    void run(final ReactiveContext.Ctx snapshot, final Runnable task) {
+        try {
+            RUN.invokeExact(WHERE.invokeExact(key, (Object) new Holder(snapshot)), task);
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable e) { // can't happen, Runnable does not throw checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    <T> T get(final ReactiveContext.Ctx snapshot, final Supplier<T> task) {
+        final var result = new Result<T>();
+        run(snapshot, () -> result.value = task.get());
+        return result.value;
+    }
+
+    @Override
+    <T> T call(final ReactiveContext.Ctx snapshot, final Callable<T> task) throws Exception {
+        final var result = new Result<T>();
+        run(snapshot, () -> {
+            try {
+                result.value = task.call();
+            } catch (final Exception e) {
+                result.error = e;
+            }
+        });
+        if (result.error != null) {
+            throw result.error;
+        }
+        return result.value;
+    }
+
+    private Holder holder() {
+        try {
+            if (!(boolean) IS_BOUND.invokeExact(key)) {
+                return null;
+            }
+            final Object holder = GET.invokeExact(key);
+            return (Holder) holder;
+        } catch (final RuntimeException | Error e) {
+            throw e;
+        } catch (final Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Holder {
+        private final Thread owner = Thread.currentThread();
+        private ReactiveContext.Ctx value;
+
+        private Holder(final ReactiveContext.Ctx value) {
+            this.value = value;
+        }
+    }
+
+    private static class Result<T> {
+        private T value;
+        private Exception error;
+    }
+}
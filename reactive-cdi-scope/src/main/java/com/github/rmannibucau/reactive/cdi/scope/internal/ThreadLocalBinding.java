@@ -0,0 +1,23 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal;
+
+class ThreadLocalBinding extends ContextBinding {
+    private final ThreadLocal<ReactiveContext.Ctx> instances = new ThreadLocal<>();
+
+    @Override
+    ReactiveContext.Ctx get() {
+        final var current = instances.get();
+        if (current == null) { // get() registered an entry, drop it to not leak
+            instances.remove();
+        }
+        return current;
+    }
+
+    @Override
+    void set(final ReactiveContext.Ctx snapshot) {
+        if (snapshot == null) {
+            instances.remove();
+        } else {
+            instances.set(snapshot);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// reflective access to virtual threads (Java 21 and later) since the module targets Java 11
+final class VirtualThreads {
+    private VirtualThreads() {
+        // no-op
+    }
+
+    static ExecutorService newThreadPerTaskExecutor(final String namePrefix) {
+        try {
+            final var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            final var builderType = Class.forName("java.lang.Thread$Builder");
+            final var named = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            final var factory = builderType.getMethod("factory").invoke(named);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, factory);
+        } catch (final NoSuchMethodException | ClassNotFoundException e) {
+            throw new UnsupportedOperationException("Virtual threads are not available on this JVM (Java >= 21 required)", e);
+        } catch (final IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (final InvocationTargetException e) {
+            final var cause = e.getTargetException();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
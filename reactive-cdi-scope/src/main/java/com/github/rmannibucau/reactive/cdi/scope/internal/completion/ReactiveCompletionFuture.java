@@ -1,28 +1,140 @@
 package com.github.rmannibucau.reactive.cdi.scope.internal.completion;
 
 import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
 
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * Callbacks (synchronous and asynchronous ones) capture the context of the thread registering them,
+ * dependent stages are {@link ReactiveCompletionFuture} too so the whole chain propagates the context.
+ * Since callbacks carry the context, executors (default one included) do not need to be wrapped.
+ *
+ * When wrapping a {@link CompletableFuture}, completion, cancellation and obtrusion are forwarded to it
+ * so both futures share the same outcome.
+ *
+ * With reference counting, each future keeps the scope alive until it completes.
+ */
 public class ReactiveCompletionFuture<T> extends CompletableFuture<T> {
-    private final ReactiveContext context;
+    private static final Class<?> MINIMAL_STAGE = new CompletableFuture<>().minimalCompletionStage().getClass();
+
+    protected final ReactiveContext context;
+    private final CompletableFuture<T> delegate;
+    private boolean tracking; // only set in the constructor
+
+    public ReactiveCompletionFuture(final ReactiveContext context) {
+        this.context = context;
+        this.delegate = null;
+        track();
+    }
 
     public ReactiveCompletionFuture(final ReactiveContext context, final CompletionStage<T> delegate) {
         this.context = context;
+        this.delegate = asFuture(delegate);
 
-        // subscribe
-        delegate.whenComplete((r, ex) -> {
-            if (ex != null) {
-                ReactiveCompletionFuture.this.completeExceptionally(ex);
-            } else {
-                ReactiveCompletionFuture.this.complete(r);
+        if (this.delegate != null && this.delegate.isDone() && !this.delegate.isCompletedExceptionally()) {
+            super.complete(this.delegate.join()); // no need to subscribe
+        } else {
+            delegate.whenComplete(this::relay);
+            track();
+        }
+    }
+
+    /**
+     * Wraps a stage, if it is already a {@link ReactiveCompletionFuture} of the same context it is returned as is.
+     *
+     * @param context the reactive context to propagate.
+     * @param stage   the stage to wrap.
+     * @param <T>     the type of the stage value.
+     * @return a context aware future.
+     */
+    public static <T> ReactiveCompletionFuture<T> wrap(final ReactiveContext context, final CompletionStage<T> stage) {
+        if (stage instanceof ReactiveCompletionFuture && ReactiveCompletionFuture.class.cast(stage).context == context) {
+            return (ReactiveCompletionFuture<T>) stage;
+        }
+        return new ReactiveCompletionFuture<>(context, stage);
+    }
+
+    // minimal stages are CompletableFuture instances but throw on anything else than the CompletionStage methods
+    private static <T> CompletableFuture<T> asFuture(final CompletionStage<T> stage) {
+        if (!(stage instanceof CompletableFuture) || stage instanceof ReactiveMinimalStage || stage.getClass() == MINIMAL_STAGE) {
+            return null;
+        }
+        return (CompletableFuture<T>) stage;
+    }
+
+    private void track() {
+        if (!context.isReferenceCounting()) {
+            return;
+        }
+        final var reference = context.current().acquire();
+        if (reference != ScopeReference.NONE) {
+            tracking = true; // the releasing stage must not be tracked itself (it would recurse)
+            try {
+                super.whenComplete((value, error) -> reference.close());
+            } finally {
+                tracking = false;
             }
-        });
+        }
+    }
+
+    private void relay(final T value, final Throwable error) {
+        if (error != null) {
+            super.completeExceptionally(error);
+        } else {
+            super.complete(value);
+        }
+    }
+
+    @Override
+    public boolean complete(final T value) {
+        final boolean completed = super.complete(value);
+        if (delegate != null) {
+            delegate.complete(value);
+        }
+        return completed;
+    }
+
+    @Override
+    public boolean completeExceptionally(final Throwable ex) {
+        final boolean completed = super.completeExceptionally(ex);
+        if (delegate != null) {
+            delegate.completeExceptionally(ex);
+        }
+        return completed;
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        final boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (delegate != null) {
+            delegate.cancel(mayInterruptIfRunning);
+        }
+        return cancelled;
+    }
+
+    @Override
+    public void obtrudeValue(final T value) {
+        super.obtrudeValue(value);
+        if (delegate != null) {
+            delegate.obtrudeValue(value);
+        }
+    }
+
+    @Override
+    public void obtrudeException(final Throwable ex) {
+        super.obtrudeException(ex);
+        if (delegate != null) {
+            delegate.obtrudeException(ex);
+        }
     }
 
     @Override
@@ -91,4 +203,276 @@ public class ReactiveCompletionFuture<T> extends CompletableFuture<T> {
     public CompletableFuture<T> exceptionally(final Function<Throwable, ? extends T> fn) {
         return super.exceptionally(context.wrapFunction(fn));
     }
+
+    @Override
+    public <U> CompletableFuture<U> thenApplyAsync(final Function<? super T, ? extends U> fn) {
+        return super.thenApplyAsync(context.wrapFunction(fn));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenApplyAsync(final Function<? super T, ? extends U> fn, final Executor executor) {
+        return super.thenApplyAsync(context.wrapFunction(fn), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> thenAcceptAsync(final Consumer<? super T> action) {
+        return super.thenAcceptAsync(context.wrapConsumer(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> thenAcceptAsync(final Consumer<? super T> action, final Executor executor) {
+        return super.thenAcceptAsync(context.wrapConsumer(action), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> thenRunAsync(final Runnable action) {
+        return super.thenRunAsync(context.wrapRunnable(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> thenRunAsync(final Runnable action, final Executor executor) {
+        return super.thenRunAsync(context.wrapRunnable(action), executor);
+    }
+
+    @Override
+    public <U, V> CompletableFuture<V> thenCombineAsync(final CompletionStage<? extends U> other,
+                                                        final BiFunction<? super T, ? super U, ? extends V> fn) {
+        return super.thenCombineAsync(other, context.wrapBiFunction(fn));
+    }
+
+    @Override
+    public <U, V> CompletableFuture<V> thenCombineAsync(final CompletionStage<? extends U> other,
+                                                        final BiFunction<? super T, ? super U, ? extends V> fn,
+                                                        final Executor executor) {
+        return super.thenCombineAsync(other, context.wrapBiFunction(fn), executor);
+    }
+
+    @Override
+    public <U> CompletableFuture<Void> thenAcceptBothAsync(final CompletionStage<? extends U> other,
+                                                           final BiConsumer<? super T, ? super U> action) {
+        return super.thenAcceptBothAsync(other, context.wrapBiConsumer(action));
+    }
+
+    @Override
+    public <U> CompletableFuture<Void> thenAcceptBothAsync(final CompletionStage<? extends U> other,
+                                                           final BiConsumer<? super T, ? super U> action,
+                                                           final Executor executor) {
+        return super.thenAcceptBothAsync(other, context.wrapBiConsumer(action), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterBothAsync(final CompletionStage<?> other, final Runnable action) {
+        return super.runAfterBothAsync(other, context.wrapRunnable(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterBothAsync(final CompletionStage<?> other, final Runnable action,
+                                                     final Executor executor) {
+        return super.runAfterBothAsync(other, context.wrapRunnable(action), executor);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> applyToEitherAsync(final CompletionStage<? extends T> other,
+                                                       final Function<? super T, U> fn) {
+        return super.applyToEitherAsync(other, context.wrapFunction(fn));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> applyToEitherAsync(final CompletionStage<? extends T> other,
+                                                       final Function<? super T, U> fn, final Executor executor) {
+        return super.applyToEitherAsync(other, context.wrapFunction(fn), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> acceptEitherAsync(final CompletionStage<? extends T> other,
+                                                     final Consumer<? super T> action) {
+        return super.acceptEitherAsync(other, context.wrapConsumer(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> acceptEitherAsync(final CompletionStage<? extends T> other,
+                                                     final Consumer<? super T> action, final Executor executor) {
+        return super.acceptEitherAsync(other, context.wrapConsumer(action), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterEitherAsync(final CompletionStage<?> other, final Runnable action) {
+        return super.runAfterEitherAsync(other, context.wrapRunnable(action));
+    }
+
+    @Override
+    public CompletableFuture<Void> runAfterEitherAsync(final CompletionStage<?> other, final Runnable action,
+                                                       final Executor executor) {
+        return super.runAfterEitherAsync(other, context.wrapRunnable(action), executor);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenComposeAsync(final Function<? super T, ? extends CompletionStage<U>> fn) {
+        return super.thenComposeAsync(context.wrapFunction(fn));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> thenComposeAsync(final Function<? super T, ? extends CompletionStage<U>> fn,
+                                                     final Executor executor) {
+        return super.thenComposeAsync(context.wrapFunction(fn), executor);
+    }
+
+    @Override
+    public CompletableFuture<T> whenCompleteAsync(final BiConsumer<? super T, ? super Throwable> action) {
+        return super.whenCompleteAsync(context.wrapBiConsumer(action));
+    }
+
+    @Override
+    public CompletableFuture<T> whenCompleteAsync(final BiConsumer<? super T, ? super Throwable> action,
+                                                  final Executor executor) {
+        return super.whenCompleteAsync(context.wrapBiConsumer(action), executor);
+    }
+
+    @Override
+    public <U> CompletableFuture<U> handleAsync(final BiFunction<? super T, Throwable, ? extends U> fn) {
+        return super.handleAsync(context.wrapBiFunction(fn));
+    }
+
+    @Override
+    public <U> CompletableFuture<U> handleAsync(final BiFunction<? super T, Throwable, ? extends U> fn,
+                                                final Executor executor) {
+        return super.handleAsync(context.wrapBiFunction(fn), executor);
+    }
+
+    @Override
+    public CompletableFuture<T> completeAsync(final Supplier<? extends T> supplier) {
+        return super.completeAsync(context.current().wrap(supplier));
+    }
+
+    @Override
+    public CompletableFuture<T> completeAsync(final Supplier<? extends T> supplier, final Executor executor) {
+        return super.completeAsync(context.current().wrap(supplier), executor);
+    }
+
+    @Override // copy() and the timeout methods rely on it to create dependent stages
+    public <U> CompletableFuture<U> newIncompleteFuture() {
+        return tracking ? new CompletableFuture<>() : new ReactiveCompletionFuture<>(context);
+    }
+
+    @Override
+    public CompletionStage<T> minimalCompletionStage() {
+        final ReactiveCompletionFuture<T> stage = new ReactiveMinimalStage<>(context);
+        super.whenComplete(stage::relay);
+        return stage;
+    }
+
+    // mimics CompletableFuture.MinimalStage which would otherwise lose the context in its dependent stages
+    private static class ReactiveMinimalStage<T> extends ReactiveCompletionFuture<T> {
+        private ReactiveMinimalStage(final ReactiveContext context) {
+            super(context);
+        }
+
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return super.tracking ? new CompletableFuture<>() : new ReactiveMinimalStage<>(context);
+        }
+
+        @Override
+        public CompletableFuture<T> toCompletableFuture() {
+            final var future = new ReactiveCompletionFuture<T>(context);
+            super.whenComplete((r, e) -> {
+                if (e != null) {
+                    future.completeExceptionally(e);
+                } else {
+                    future.complete(r);
+                }
+            });
+            return future;
+        }
+
+        @Override
+        public CompletionStage<T> minimalCompletionStage() {
+            return this;
+        }
+
+        @Override
+        public T get() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public T get(final long timeout, final TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public T getNow(final T valueIfAbsent) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public T join() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean complete(final T value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean completeExceptionally(final Throwable ex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void obtrudeValue(final T value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void obtrudeException(final Throwable ex) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isDone() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isCompletedExceptionally() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int getNumberOfDependents() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<T> completeAsync(final Supplier<? extends T> supplier, final Executor executor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<T> completeAsync(final Supplier<? extends T> supplier) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<T> orTimeout(final long timeout, final TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<T> completeOnTimeout(final T value, final long timeout, final TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
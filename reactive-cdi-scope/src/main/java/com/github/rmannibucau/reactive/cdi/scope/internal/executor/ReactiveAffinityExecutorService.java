@@ -0,0 +1,263 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.executor;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A pool with a queue per worker where tasks are routed by the context snapshot of the submitter:
+ * consecutive stages of a scope run on the same worker which keeps the scope bound between them
+ * (no binding change per task and warm caches for the scoped beans).
+ * A task submitted from another thread goes to an idle worker when the one of its scope is running a task
+ * (a worker submitting a stage of its scope keeps it since it runs it right after), and idle workers steal
+ * the tasks queued behind a running one. Idle workers are parked until a submission needs them.
+ * The binding of a worker is dropped when it has nothing to run so it does not retain a finished scope.
+ */
+public class ReactiveAffinityExecutorService extends AbstractExecutorService {
+    private final ReactiveContext context;
+    private final Worker[] workers;
+    private final CountDownLatch terminated;
+    private final AtomicInteger unbound = new AtomicInteger(); // round robin for tasks without context
+    private volatile boolean shutdown;
+    private volatile boolean stopped; // shutdownNow()
+
+    public ReactiveAffinityExecutorService(final ReactiveContext context, final int parallelism, final ThreadFactory threadFactory) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.context = context;
+        this.workers = new Worker[parallelism];
+        this.terminated = new CountDownLatch(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            workers[i] = new Worker(i);
+        }
+        for (final var worker : workers) {
+            worker.thread = threadFactory.newThread(worker);
+            worker.thread.start();
+        }
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        final var current = context.current();
+        final var reference = current.acquire();
+        if (shutdown) {
+            reference.close();
+            throw new RejectedExecutionException("Executor is shut down");
+        }
+        final var worker = select(current);
+        final var task = new Task(command, current, reference);
+        worker.queue.offer(task);
+        if (shutdown && worker.queue.remove(task)) { // the workers can have seen a drained pool and exited
+            reference.close();
+            throw new RejectedExecutionException("Executor is shut down");
+        }
+        signal(worker);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        wakeAll(); // idle workers exit if there is nothing left to run
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        stopped = true;
+        final var pending = new ArrayList<Task>();
+        for (final var worker : workers) {
+            worker.queue.drainTo(pending);
+            worker.thread.interrupt();
+        }
+        for (final var task : pending) { // as the wrapped executor services, not run so not holding the scope
+            task.reference.close();
+        }
+        return new ArrayList<>(pending);
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    private Worker select(final ReactiveContext.Ctx current) {
+        final Worker preferred;
+        if (current.hasScope()) {
+            for (final var worker : workers) { // a stage submitted by a worker runs right after, where its scope is bound
+                if (worker.thread == Thread.currentThread()) {
+                    return worker;
+                }
+            }
+            final int hash = System.identityHashCode(current);
+            preferred = workers[Math.floorMod(hash ^ (hash >>> 16), workers.length)];
+        } else {
+            preferred = workers[Math.floorMod(unbound.getAndIncrement(), workers.length)];
+        }
+        if (!preferred.running || preferred.thread == Thread.currentThread()) {
+            return preferred;
+        }
+        for (final var worker : workers) { // imbalance, prefer to lose the affinity than to wait
+            if (!worker.running && worker.queue.isEmpty()) {
+                return worker;
+            }
+        }
+        return preferred;
+    }
+
+    private void signal(final Worker worker) {
+        if (worker.parked) {
+            LockSupport.unpark(worker.thread);
+            return;
+        }
+        if (worker.thread == Thread.currentThread() && worker.queue.size() == 1) { // its next stage, keep the affinity
+            return;
+        }
+        for (final var thief : workers) { // queued behind a running task, let an idle worker steal it
+            if (thief.parked) {
+                LockSupport.unpark(thief.thread);
+                return;
+            }
+        }
+    }
+
+    private void wakeAll() { // unpark() before park() makes it return so no need to check they are parked
+        for (final var worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+    }
+
+    private boolean canSteal(final Worker thief) {
+        for (final var victim : workers) {
+            if (victim != thief && victim.running && !victim.queue.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Task steal(final Worker thief) {
+        for (int i = 1; i < workers.length; i++) {
+            final var victim = workers[(thief.index + i) % workers.length];
+            if (victim.running) {
+                final var task = victim.queue.pollLast();
+                if (task != null) {
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isDrained() {
+        for (final var worker : workers) {
+            if (!worker.queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Task implements Runnable {
+        private final Runnable delegate;
+        private final ReactiveContext.Ctx snapshot;
+        private final ScopeReference reference;
+
+        private Task(final Runnable delegate, final ReactiveContext.Ctx snapshot, final ScopeReference reference) {
+            this.delegate = delegate;
+            this.snapshot = snapshot;
+            this.reference = reference;
+        }
+
+        @Override
+        public void run() { // when returned by shutdownNow()
+            final var previous = snapshot.enter();
+            try {
+                delegate.run();
+            } finally {
+                snapshot.exit(previous);
+                reference.close();
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final int index;
+        private final LinkedBlockingDeque<Task> queue = new LinkedBlockingDeque<>();
+        private volatile boolean running;
+        private volatile boolean parked;
+        private Thread thread;
+
+        private Worker(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!stopped) {
+                    var task = queue.pollFirst();
+                    if (task == null) {
+                        task = steal(this);
+                    }
+                    if (task != null) {
+                        execute(task);
+                        continue;
+                    }
+                    context.unbind();
+                    if (shutdown && isDrained()) {
+                        return;
+                    }
+                    park();
+                }
+            } finally {
+                context.unbind();
+                terminated.countDown();
+                wakeAll(); // after a shutdown the idle workers wait for the last tasks to exit
+            }
+        }
+
+        // submitters check the flag after queuing their task, we check the queues after setting it
+        private void park() {
+            Thread.interrupted(); // left by a task it would make park() return immediately, shutdownNow() sets stopped before
+            parked = true;
+            if (!stopped && queue.isEmpty() && !canSteal(this)) {
+                LockSupport.park(this);
+            }
+            parked = false;
+        }
+
+        private void execute(final Task task) {
+            running = true;
+            task.snapshot.enter(); // only binds if the previous task was from another scope, no reset until idle
+            try {
+                task.delegate.run();
+            } catch (final RuntimeException | Error e) {
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            } finally {
+                task.reference.close();
+                running = false;
+            }
+        }
+    }
+}
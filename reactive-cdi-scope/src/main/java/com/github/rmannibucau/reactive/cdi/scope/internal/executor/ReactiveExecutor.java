@@ -16,10 +16,12 @@ public class ReactiveExecutor implements Executor {
     @Override
     public void execute(final Runnable command) {
         final var current = context.current();
+        final var reference = current.acquire();
         try {
-            delegate.execute(current.wrap(command));
-        } finally {
-            current.release();
+            delegate.execute(current.wrap(command, reference));
+        } catch (final RuntimeException re) { // rejected
+            reference.close();
+            throw re;
         }
     }
 }
@@ -1,20 +1,23 @@
 package com.github.rmannibucau.reactive.cdi.scope.internal.executor;
 
 import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import static java.util.stream.Collectors.toList;
 
 public class ReactiveExecutorService implements ExecutorService {
-    private final ReactiveContext context;
+    protected final ReactiveContext context;
     private final ExecutorService delegate;
 
     public ReactiveExecutorService(final ReactiveContext context, final ExecutorService executor) {
@@ -25,10 +28,13 @@ public class ReactiveExecutorService implements ExecutorService {
     @Override
     public void execute(final Runnable command) {
         final var current = context.current();
+        final var reference = current.acquire();
         try {
-            delegate.execute(current.wrap(command));
-        } finally {
-            current.release();
+            delegate.execute(reference == ScopeReference.NONE ?
+                    current.wrap(command) : new ReferenceRunnable(current.wrap(command), reference));
+        } catch (final RuntimeException re) { // rejected
+            reference.close();
+            throw re;
         }
     }
 
@@ -39,7 +45,15 @@ public class ReactiveExecutorService implements ExecutorService {
 
     @Override
     public List<Runnable> shutdownNow() {
-        return delegate.shutdownNow();
+        final var pending = delegate.shutdownNow();
+        for (final var task : pending) { // will not run, running them later is still bound but does not hold the scope
+            if (task instanceof ReferenceRunnable) {
+                ReferenceRunnable.class.cast(task).reference.close();
+            } else if (task instanceof ReferenceTask) {
+                ReferenceTask.class.cast(task).reference.close();
+            }
+        }
+        return pending;
     }
 
     @Override
@@ -60,81 +74,126 @@ public class ReactiveExecutorService implements ExecutorService {
     @Override
     public <T> Future<T> submit(final Callable<T> task) {
         final var current = context.current();
+        final var reference = current.acquire();
         try {
-            return delegate.submit(wrapCallable(task, current));
-        } finally {
-            current.release();
+            return submit(current.wrapCallable(task), reference);
+        } catch (final RuntimeException re) {
+            reference.close();
+            throw re;
         }
     }
 
     @Override
     public <T> Future<T> submit(final Runnable task, final T result) {
         final var current = context.current();
+        final var reference = current.acquire();
         try {
-            return delegate.submit(current.wrap(task), result);
-        } finally {
-            current.release();
+            return submit(Executors.callable(current.wrap(task), result), reference);
+        } catch (final RuntimeException re) {
+            reference.close();
+            throw re;
         }
     }
 
     @Override
     public Future<?> submit(final Runnable task) {
         final var current = context.current();
+        final var reference = current.acquire();
         try {
-            return delegate.submit(current.wrap(task));
-        } finally {
-            current.release();
+            return submit(Executors.callable(current.wrap(task)), reference);
+        } catch (final RuntimeException re) {
+            reference.close();
+            throw re;
         }
     }
 
+    // invoke* methods block until the tasks are done so a single reference covers them
+
     @Override
     public <T> List<Future<T>> invokeAll(final Collection<? extends Callable<T>> tasks) throws InterruptedException {
         final var current = context.current();
-        try {
-            return delegate.invokeAll(tasks.stream().map(it -> wrapCallable(it, current)).collect(toList()));
-        } finally {
-            current.release();
+        try (final var reference = current.acquire()) {
+            return delegate.invokeAll(tasks.stream().map(current::wrapCallable).collect(toList()));
         }
     }
 
     @Override
     public <T> List<Future<T>> invokeAll(final Collection<? extends Callable<T>> tasks, final long timeout, final TimeUnit unit) throws InterruptedException {
         final var current = context.current();
-        try {
-            return delegate.invokeAll(tasks.stream().map(it -> wrapCallable(it, current)).collect(toList()), timeout, unit);
-        } finally {
-            current.release();
+        try (final var reference = current.acquire()) {
+            return delegate.invokeAll(tasks.stream().map(current::wrapCallable).collect(toList()), timeout, unit);
         }
     }
 
     @Override
     public <T> T invokeAny(final Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
         final var current = context.current();
-        try {
-            return delegate.invokeAny(tasks.stream().map(it -> wrapCallable(it, current)).collect(toList()));
-        } finally {
-            current.release();
+        try (final var reference = current.acquire()) {
+            return delegate.invokeAny(tasks.stream().map(current::wrapCallable).collect(toList()));
         }
     }
 
     @Override
     public <T> T invokeAny(final Collection<? extends Callable<T>> tasks, final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
         final var current = context.current();
-        try {
-            return delegate.invokeAny(tasks.stream().map(it -> wrapCallable(it, current)).collect(toList()), timeout, unit);
-        } finally {
-            current.release();
+        try (final var reference = current.acquire()) {
+            return delegate.invokeAny(tasks.stream().map(current::wrapCallable).collect(toList()), timeout, unit);
+        }
+    }
+
+    // submitted as a plain task (execute) so shutdownNow() returns it and can release its reference
+    private <T> Future<T> submit(final Callable<T> task, final ScopeReference reference) {
+        if (reference == ScopeReference.NONE) {
+            return delegate.submit(task);
         }
+        final var future = new ReferenceTask<>(task, reference);
+        delegate.execute(future);
+        return future;
     }
 
-    private <T> Callable<T> wrapCallable(final Callable<T> task, final ReactiveContext.Ctx current) {
-        return () -> {
-            final var previous = context.push(current);
+    private static class ReferenceRunnable implements Runnable {
+        private final Runnable delegate;
+        private final ScopeReference reference;
+
+        private ReferenceRunnable(final Runnable delegate, final ScopeReference reference) {
+            this.delegate = delegate;
+            this.reference = reference;
+        }
+
+        @Override
+        public void run() {
             try {
-                return task.call();
+                delegate.run();
             } finally {
-                context.reset(previous);
+                reference.close();
             }
-        };
+        }
+    }
+
+    // done() is called once completed or cancelled, so a cancelled task releases the scope too
+    private static class ReferenceTask<T> extends FutureTask<T> {
+        private final ScopeReference reference;
+
+        private ReferenceTask(final Callable<T> callable, final ScopeReference reference) {
+            super(callable);
+            this.reference = reference;
+        }
+
+        @Override // released before the waiters are notified
+        protected void set(final T value) {
+            reference.close();
+            super.set(value);
+        }
+
+        @Override
+        protected void setException(final Throwable error) {
+            reference.close();
+            super.setException(error);
+        }
+
+        @Override // cancelled
+        protected void done() {
+            reference.close();
+        }
     }
 }
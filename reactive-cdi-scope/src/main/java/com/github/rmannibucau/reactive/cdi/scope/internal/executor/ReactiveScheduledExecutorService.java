@@ -0,0 +1,182 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.executor;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduled tasks are bound to the context of the scheduling thread, it is captured once per task
+ * so periodic tasks do not allocate per execution.
+ * With reference counting, a one shot task keeps the scope alive until it ran or was cancelled,
+ * a periodic task until it was cancelled or failed.
+ * The tasks the scheduler drops on shutdown (periodic ones by default, the pending ones with {@code shutdownNow()})
+ * release their reference when they are seen dropped: by {@code shutdown*()}, {@code awaitTermination()}
+ * or {@code isTerminated()}.
+ */
+public class ReactiveScheduledExecutorService extends ReactiveExecutorService implements ScheduledExecutorService {
+    private final ScheduledExecutorService delegate;
+    private final Map<ScopeReference, ScheduledFuture<?>> scheduled = new ConcurrentHashMap<>(); // not yet released
+
+    public ReactiveScheduledExecutorService(final ReactiveContext context, final ScheduledExecutorService executor) {
+        super(context, executor);
+        this.delegate = executor;
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(final Runnable command, final long delay, final TimeUnit unit) {
+        final var current = context.current();
+        final var reference = current.acquire();
+        try {
+            return track(delegate.schedule(oneShot(current.wrap(command, reference), reference), delay, unit), reference);
+        } catch (final RuntimeException re) {
+            reference.close();
+            throw re;
+        }
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(final Callable<V> callable, final long delay, final TimeUnit unit) {
+        final var current = context.current();
+        final var reference = current.acquire();
+        try {
+            final var wrapped = current.wrapCallable(callable, reference);
+            return track(delegate.schedule(reference == ScopeReference.NONE ? wrapped : () -> {
+                try {
+                    return wrapped.call();
+                } finally {
+                    scheduled.remove(reference);
+                }
+            }, delay, unit), reference);
+        } catch (final RuntimeException re) {
+            reference.close();
+            throw re;
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(final Runnable command, final long initialDelay,
+                                                  final long period, final TimeUnit unit) {
+        final var current = context.current();
+        final var reference = current.acquire();
+        try {
+            return track(delegate.scheduleAtFixedRate(periodic(current, command, reference), initialDelay, period, unit), reference);
+        } catch (final RuntimeException re) {
+            reference.close();
+            throw re;
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(final Runnable command, final long initialDelay,
+                                                     final long delay, final TimeUnit unit) {
+        final var current = context.current();
+        final var reference = current.acquire();
+        try {
+            return track(delegate.scheduleWithFixedDelay(periodic(current, command, reference), initialDelay, delay, unit), reference);
+        } catch (final RuntimeException re) {
+            reference.close();
+            throw re;
+        }
+    }
+
+    private Runnable periodic(final ReactiveContext.Ctx current, final Runnable command, final ScopeReference reference) {
+        final var wrapped = current.wrap(command);
+        if (reference == ScopeReference.NONE) {
+            return wrapped;
+        }
+        return () -> {
+            try {
+                wrapped.run();
+            } catch (final RuntimeException | Error e) { // the scheduler stops the task
+                scheduled.remove(reference);
+                reference.close();
+                throw e;
+            }
+        };
+    }
+
+    private Runnable oneShot(final Runnable wrapped, final ScopeReference reference) {
+        if (reference == ScopeReference.NONE) {
+            return wrapped;
+        }
+        return () -> {
+            try {
+                wrapped.run();
+            } finally {
+                scheduled.remove(reference);
+            }
+        };
+    }
+
+    private <T> ScheduledFuture<T> track(final ScheduledFuture<T> future, final ScopeReference reference) {
+        if (reference == ScopeReference.NONE) {
+            return future;
+        }
+        scheduled.put(reference, future);
+        if (future.isDone()) { // ran or was cancelled before being tracked
+            scheduled.remove(reference);
+            if (future.isCancelled()) {
+                reference.close();
+            }
+        }
+        return new ReferenceScheduledFuture<>(future, reference, scheduled);
+    }
+
+    @Override
+    public void shutdown() {
+        super.shutdown();
+        releaseDropped();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        final var pending = super.shutdownNow();
+        final var dropped = Collections.newSetFromMap(new IdentityHashMap<>());
+        dropped.addAll(pending);
+        scheduled.forEach((reference, future) -> {
+            if (dropped.contains(future)) { // will not run, running them later is still bound but does not hold the scope
+                scheduled.remove(reference);
+                reference.close();
+            }
+        });
+        releaseDropped();
+        return pending;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        final boolean terminated = super.isTerminated();
+        if (terminated) {
+            releaseDropped();
+        }
+        return terminated;
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final boolean terminated = super.awaitTermination(timeout, unit);
+        if (terminated) {
+            releaseDropped();
+        }
+        return terminated;
+    }
+
+    // cancelled by the scheduler (shutdown policies), a periodic task stopped after its last execution for ex.
+    private void releaseDropped() {
+        scheduled.forEach((reference, future) -> {
+            if (future.isDone()) {
+                scheduled.remove(reference);
+                reference.close();
+            }
+        });
+    }
+}
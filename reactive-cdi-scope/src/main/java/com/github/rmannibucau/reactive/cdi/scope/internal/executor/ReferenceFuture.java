@@ -0,0 +1,50 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.executor;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Releases the scope reference of a task cancelled before it ran (it would never release it otherwise).
+ */
+class ReferenceFuture<T> implements Future<T> {
+    private final Future<T> delegate;
+    private final ScopeReference reference;
+
+    ReferenceFuture(final Future<T> delegate, final ScopeReference reference) {
+        this.delegate = delegate;
+        this.reference = reference;
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        final boolean cancelled = delegate.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            reference.close();
+        }
+        return cancelled;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return delegate.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return delegate.isDone();
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        return delegate.get();
+    }
+
+    @Override
+    public T get(final long timeout, final TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        return delegate.get(timeout, unit);
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.executor;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
+
+import java.util.Map;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+class ReferenceScheduledFuture<T> extends ReferenceFuture<T> implements ScheduledFuture<T> {
+    private final ScheduledFuture<T> delegate;
+    private final ScopeReference reference;
+    private final Map<ScopeReference, ?> scheduled; // the references its executor releases on shutdown
+
+    ReferenceScheduledFuture(final ScheduledFuture<T> delegate, final ScopeReference reference,
+                             final Map<ScopeReference, ?> scheduled) {
+        super(delegate, reference);
+        this.delegate = delegate;
+        this.reference = reference;
+        this.scheduled = scheduled;
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        final boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            scheduled.remove(reference);
+        }
+        return cancelled;
+    }
+
+    @Override
+    public long getDelay(final TimeUnit unit) {
+        return delegate.getDelay(unit);
+    }
+
+    @Override
+    public int compareTo(final Delayed other) {
+        return delegate.compareTo(other);
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.flow;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
+
+import java.util.Objects;
+
+/**
+ * Signal plumbing of the subscriber wrappers ({@code Flow} and Reactive Streams ones, bridges included):
+ * binds the context around each signal unless the emitting thread is already bound to it
+ * and holds a scope reference until a terminal signal or the cancellation of the subscription.
+ * Subclasses implement the subscriber interface and only forward the signals to their delegate.
+ *
+ * @param <A> the type of the items.
+ */
+public abstract class AbstractReactiveSubscriber<A> {
+    protected final ReactiveContext.Ctx ctx;
+    protected final ScopeReference reference;
+
+    protected AbstractReactiveSubscriber(final Object delegate, final ReactiveContext.Ctx ctx) {
+        Objects.requireNonNull(delegate, "delegate"); // rule 1.9/2.13 of the spec, before acquiring a reference
+        this.ctx = ctx;
+        this.reference = ctx.acquire();
+    }
+
+    protected abstract void forwardNext(A item);
+
+    protected abstract void forwardError(Throwable throwable);
+
+    protected abstract void forwardComplete();
+
+    public void onNext(final A item) {
+        final var previous = ctx.enter();
+        try {
+            forwardNext(item);
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+
+    public void onError(final Throwable throwable) {
+        final var previous = ctx.enter();
+        try {
+            forwardError(throwable);
+        } finally {
+            ctx.exit(previous);
+            reference.close();
+        }
+    }
+
+    public void onComplete() {
+        final var previous = ctx.enter();
+        try {
+            forwardComplete();
+        } finally {
+            ctx.exit(previous);
+            reference.close();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.flow;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
+
+import java.util.Objects;
+
+/**
+ * Signal plumbing of the subscription wrappers ({@code Flow} and Reactive Streams ones, bridges included):
+ * binds the context around the requests and the cancellation which releases the reference of the subscriber.
+ */
+public abstract class AbstractReactiveSubscription {
+    protected final ReactiveContext.Ctx ctx;
+    private final ScopeReference reference;
+
+    protected AbstractReactiveSubscription(final Object delegate, final ReactiveContext.Ctx ctx, final ScopeReference reference) {
+        Objects.requireNonNull(delegate, "delegate"); // rule 1.9/2.13 of the spec
+        this.ctx = ctx;
+        this.reference = reference;
+    }
+
+    protected abstract void forwardRequest(long n);
+
+    protected abstract void forwardCancel();
+
+    public void request(final long n) {
+        final var previous = ctx.enter();
+        try {
+            forwardRequest(n);
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+
+    public void cancel() {
+        final var previous = ctx.enter();
+        try {
+            forwardCancel();
+        } finally {
+            ctx.exit(previous);
+            reference.close();
+        }
+    }
+}
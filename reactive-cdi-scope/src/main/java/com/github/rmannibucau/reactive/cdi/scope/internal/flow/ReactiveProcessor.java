@@ -14,6 +14,11 @@ public class ReactiveProcessor<A, B> extends ReactiveSubscriber<A> implements Fl
 
     @Override
     public void subscribe(final Flow.Subscriber<? super B> subscriber) {
-        ctx.wrap(() -> delegate.subscribe(subscriber));
+        final var previous = ctx.enter();
+        try {
+            delegate.subscribe(new ReactiveSubscriber<>(subscriber, ctx));
+        } finally {
+            ctx.exit(previous);
+        }
     }
 }
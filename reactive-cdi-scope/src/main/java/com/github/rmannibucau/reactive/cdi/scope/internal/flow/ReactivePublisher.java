@@ -15,6 +15,11 @@ public class ReactivePublisher<A> implements Flow.Publisher<A> {
 
     @Override
     public void subscribe(final Flow.Subscriber<? super A> subscriber) {
-        ctx.wrap(() -> delegate.subscribe(subscriber));
+        final var previous = ctx.enter();
+        try {
+            delegate.subscribe(new ReactiveSubscriber<>(subscriber, ctx));
+        } finally {
+            ctx.exit(previous);
+        }
     }
 }
@@ -4,32 +4,42 @@ import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
 
 import java.util.concurrent.Flow;
 
-public class ReactiveSubscriber<A> implements Flow.Subscriber<A> {
+/**
+ * Binds the context around each signal. When the signal is emitted by a thread already bound to the same context
+ * (synchronous emission from a wrapped {@link Flow.Subscription#request(long)} for ex.) it is not rebound
+ * so a delivery run only activates the context once.
+ * With reference counting, the scope is kept alive until a terminal signal or the cancellation of the subscription.
+ */
+public class ReactiveSubscriber<A> extends AbstractReactiveSubscriber<A> implements Flow.Subscriber<A> {
     protected final Flow.Subscriber<A> delegate;
-    protected final ReactiveContext.Ctx ctx;
 
     public ReactiveSubscriber(final Flow.Subscriber<A> delegate, final ReactiveContext.Ctx ctx) {
+        super(delegate, ctx);
         this.delegate = delegate;
-        this.ctx = ctx;
     }
 
     @Override
     public void onSubscribe(final Flow.Subscription subscription) {
-        ctx.wrap(() -> delegate.onSubscribe(subscription));
+        final var previous = ctx.enter();
+        try {
+            delegate.onSubscribe(new ReactiveSubscription(subscription, ctx, reference));
+        } finally {
+            ctx.exit(previous);
+        }
     }
 
     @Override
-    public void onNext(final A item) {
-        ctx.wrap(() -> delegate.onNext(item));
+    protected void forwardNext(final A item) {
+        delegate.onNext(item);
     }
 
     @Override
-    public void onError(final Throwable throwable) {
-        ctx.wrap(() -> delegate.onError(throwable));
+    protected void forwardError(final Throwable throwable) {
+        delegate.onError(throwable);
     }
 
     @Override
-    public void onComplete() {
-        ctx.wrap(delegate::onComplete);
+    protected void forwardComplete() {
+        delegate.onComplete();
     }
 }
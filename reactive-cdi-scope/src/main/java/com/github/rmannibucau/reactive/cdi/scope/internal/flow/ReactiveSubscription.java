@@ -1,25 +1,35 @@
 package com.github.rmannibucau.reactive.cdi.scope.internal.flow;
 
 import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
 
 import java.util.concurrent.Flow;
 
-public class ReactiveSubscription implements Flow.Subscription {
+public class ReactiveSubscription extends AbstractReactiveSubscription implements Flow.Subscription {
     private final Flow.Subscription delegate;
-    private final ReactiveContext.Ctx ctx;
 
     public ReactiveSubscription(final Flow.Subscription delegate, final ReactiveContext.Ctx ctx) {
+        this(delegate, ctx, ScopeReference.NONE);
+    }
+
+    /**
+     * @param delegate  the subscription to wrap.
+     * @param ctx       the context to bind.
+     * @param reference the reference of the subscriber, released on cancellation.
+     */
+    public ReactiveSubscription(final Flow.Subscription delegate, final ReactiveContext.Ctx ctx,
+                                final ScopeReference reference) {
+        super(delegate, ctx, reference);
         this.delegate = delegate;
-        this.ctx = ctx;
     }
 
     @Override
-    public void request(final long n) {
-        ctx.wrap(() -> delegate.request(n));
+    protected void forwardRequest(final long n) {
+        delegate.request(n);
     }
 
     @Override
-    public void cancel() {
-        ctx.wrap(delegate::cancel);
+    protected void forwardCancel() {
+        delegate.cancel();
     }
 }
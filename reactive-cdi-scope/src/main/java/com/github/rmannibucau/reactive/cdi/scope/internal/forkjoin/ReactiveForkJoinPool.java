@@ -0,0 +1,45 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.forkjoin;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.executor.ReactiveExecutorService;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A {@link ReactiveExecutorService} also accepting {@link ForkJoinTask}, submitted tasks are bound to the context
+ * of the submitting thread. Use {@link ReactiveRecursiveTask}/{@link ReactiveRecursiveAction} to propagate it
+ * to forked subtasks.
+ * With reference counting, the submitted task holds the scope until it completes, forked subtasks should be joined.
+ */
+public class ReactiveForkJoinPool extends ReactiveExecutorService {
+    private final ForkJoinPool pool;
+
+    public ReactiveForkJoinPool(final ReactiveContext context, final ForkJoinPool pool) {
+        super(context, pool);
+        this.pool = pool;
+    }
+
+    public <T> T invoke(final ForkJoinTask<T> task) {
+        return pool.invoke(wrap(task));
+    }
+
+    public void execute(final ForkJoinTask<?> task) {
+        pool.execute(wrap(task));
+    }
+
+    public <T> ForkJoinTask<T> submit(final ForkJoinTask<T> task) {
+        return pool.submit(wrap(task));
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    private <T> ForkJoinTask<T> wrap(final ForkJoinTask<T> task) {
+        if ((task instanceof ReactiveRecursiveTask || task instanceof ReactiveRecursiveAction) && !context.isReferenceCounting()) {
+            return task; // already captured the context, else wrapped to hold the scope until the task and its joined subtasks are done
+        }
+        return new ReactiveForkJoinTask<>(task, context.current());
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.forkjoin;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ScopeReference;
+
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Binds the context captured at creation around the invocation of a task submitted to a pool.
+ * Subtasks the delegate forks are not bound unless they are {@link ReactiveRecursiveTask}
+ * or {@link ReactiveRecursiveAction} instances.
+ */
+public class ReactiveForkJoinTask<T> extends ForkJoinTask<T> {
+    private final ForkJoinTask<T> delegate;
+    private final ReactiveContext.Ctx ctx;
+    private final ScopeReference reference;
+    private T result;
+
+    public ReactiveForkJoinTask(final ForkJoinTask<T> delegate, final ReactiveContext.Ctx ctx) {
+        this.delegate = delegate;
+        this.ctx = ctx;
+        this.reference = ctx.acquire();
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        final boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled) {
+            reference.close();
+        }
+        return cancelled;
+    }
+
+    @Override
+    public T getRawResult() {
+        return result;
+    }
+
+    @Override
+    protected void setRawResult(final T value) {
+        result = value;
+    }
+
+    @Override
+    protected boolean exec() {
+        final var previous = ctx.enter();
+        try {
+            result = delegate.invoke();
+            return true;
+        } finally {
+            ctx.exit(previous);
+            reference.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.forkjoin;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The {@link RecursiveAction} flavor of {@link ReactiveRecursiveTask}.
+ */
+public abstract class ReactiveRecursiveAction extends ForkJoinTask<Void> {
+    private final ReactiveContext.Ctx ctx;
+
+    protected ReactiveRecursiveAction(final ReactiveContext context) {
+        this.ctx = context.current();
+    }
+
+    protected abstract void compute();
+
+    @Override
+    public final Void getRawResult() {
+        return null;
+    }
+
+    @Override
+    protected final void setRawResult(final Void mustBeNull) {
+        // no-op
+    }
+
+    @Override
+    protected final boolean exec() {
+        final var previous = ctx.enter();
+        try {
+            compute();
+            return true;
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+}
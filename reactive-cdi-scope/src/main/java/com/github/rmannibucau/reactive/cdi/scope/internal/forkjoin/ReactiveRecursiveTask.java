@@ -0,0 +1,45 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.forkjoin;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A {@link RecursiveTask} capturing the context when it is created - so when its parent forks it - and binding it
+ * in {@link #compute()}. When the worker already runs this context (the parent computes or joins it inline)
+ * nothing is rebound, only stolen tasks pay the binding.
+ *
+ * @param <V> the result type.
+ */
+public abstract class ReactiveRecursiveTask<V> extends ForkJoinTask<V> {
+    private final ReactiveContext.Ctx ctx;
+    private V result;
+
+    protected ReactiveRecursiveTask(final ReactiveContext context) {
+        this.ctx = context.current();
+    }
+
+    protected abstract V compute();
+
+    @Override
+    public final V getRawResult() {
+        return result;
+    }
+
+    @Override
+    protected final void setRawResult(final V value) {
+        result = value;
+    }
+
+    @Override
+    protected final boolean exec() {
+        final var previous = ctx.enter();
+        try {
+            result = compute();
+            return true;
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.forkjoin;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Binds the context around the traversal of each split. A parallel stream traverses its leaves
+ * with {@link #forEachRemaining(Consumer)} so the context is bound once per chunk and not per element,
+ * {@link #tryAdvance(Consumer)} (short-circuiting operations) binds per element.
+ */
+public class ReactiveSpliterator<T> implements Spliterator<T> {
+    private final Spliterator<T> delegate;
+    private final ReactiveContext.Ctx ctx;
+
+    public ReactiveSpliterator(final Spliterator<T> delegate, final ReactiveContext.Ctx ctx) {
+        this.delegate = delegate;
+        this.ctx = ctx;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        final var previous = ctx.enter();
+        try {
+            return delegate.tryAdvance(action);
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super T> action) {
+        final var previous = ctx.enter();
+        try {
+            delegate.forEachRemaining(action);
+        } finally {
+            ctx.exit(previous);
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        final var split = delegate.trySplit();
+        return split == null ? null : new ReactiveSpliterator<>(split, ctx);
+    }
+
+    @Override
+    public long estimateSize() {
+        return delegate.estimateSize();
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return delegate.getExactSizeIfKnown();
+    }
+
+    @Override
+    public int characteristics() {
+        return delegate.characteristics();
+    }
+
+    @Override
+    public Comparator<? super T> getComparator() {
+        return delegate.getComparator();
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.metrics;
+
+import com.github.rmannibucau.reactive.cdi.scope.spi.ReactiveScopeInstrumentation;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.inject.spi.PassivationCapable;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Lock free default instrumentation, exposed as a JMX MBean by the extension.
+ * Scope durations are counted in power of two millisecond buckets (1ms, 2ms, 4ms... 65s and more).
+ */
+public class ReactiveScopeMetrics implements ReactiveScopeInstrumentation, ReactiveScopeMetricsMBean {
+    private static final int BUCKETS = 18;
+
+    private final LongAdder active = new LongAdder(); // not reset
+    private final LongAdder started = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder hops = new LongAdder();
+    private final LongAdder scopeDurations = new LongAdder();
+    private final LongAdder destroyLatencies = new LongAdder();
+    private final LongAccumulator maxDestroyLatency = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] histogram = IntStream.range(0, BUCKETS).mapToObj(i -> new LongAdder()).toArray(LongAdder[]::new);
+    private final Map<Contextual<?>, LongAdder> creations = new ConcurrentHashMap<>();
+
+    @Override
+    public long onScopeStart() {
+        active.increment();
+        started.increment();
+        return System.nanoTime();
+    }
+
+    @Override
+    public long onScopeDestroyStart() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void onScopeDestroyed(final long startToken, final long destroyToken) {
+        final long end = System.nanoTime();
+        final long duration = destroyToken - startToken;
+        final long latency = end - destroyToken;
+        active.decrement();
+        destroyed.increment();
+        scopeDurations.add(duration);
+        destroyLatencies.add(latency);
+        maxDestroyLatency.accumulate(latency);
+        histogram[bucket(TimeUnit.NANOSECONDS.toMillis(duration))].increment();
+    }
+
+    @Override
+    public void onBeanCreated(final Contextual<?> contextual) {
+        var counter = creations.get(contextual);
+        if (counter == null) {
+            counter = creations.computeIfAbsent(contextual, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    @Override
+    public void onHop() {
+        hops.increment();
+    }
+
+    @Override
+    public long getActiveScopes() {
+        return active.sum();
+    }
+
+    @Override
+    public long getStartedScopes() {
+        return started.sum();
+    }
+
+    @Override
+    public long getDestroyedScopes() {
+        return destroyed.sum();
+    }
+
+    @Override
+    public long[] getScopeDurationHistogram() {
+        return IntStream.range(0, BUCKETS).mapToLong(i -> histogram[i].sum()).toArray();
+    }
+
+    @Override
+    public long[] getScopeDurationBucketsMillis() {
+        return IntStream.range(0, BUCKETS - 1).mapToLong(i -> 1L << i).toArray();
+    }
+
+    @Override
+    public double getMeanScopeDurationMillis() {
+        final long count = destroyed.sum();
+        return count == 0 ? 0 : scopeDurations.sum() / (count * 1_000_000.);
+    }
+
+    @Override
+    public double getMeanDestroyLatencyMicros() {
+        final long count = destroyed.sum();
+        return count == 0 ? 0 : destroyLatencies.sum() / (count * 1_000.);
+    }
+
+    @Override
+    public long getMaxDestroyLatencyMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxDestroyLatency.get());
+    }
+
+    @Override
+    public long getHops() {
+        return hops.sum();
+    }
+
+    @Override
+    public Map<String, Long> getBeanCreations() {
+        final var result = new TreeMap<String, Long>();
+        creations.forEach((contextual, counter) -> result.merge(name(contextual), counter.sum(), Long::sum));
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        started.reset();
+        destroyed.reset();
+        hops.reset();
+        scopeDurations.reset();
+        destroyLatencies.reset();
+        maxDestroyLatency.reset();
+        for (final var bucket : histogram) {
+            bucket.reset();
+        }
+        creations.clear();
+    }
+
+    private static int bucket(final long millis) { // 0 for <= 1ms, i for <= 2^i ms
+        if (millis <= 1) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis - 1));
+    }
+
+    private static String name(final Contextual<?> contextual) {
+        return contextual instanceof PassivationCapable ? PassivationCapable.class.cast(contextual).getId() : contextual.toString();
+    }
+}
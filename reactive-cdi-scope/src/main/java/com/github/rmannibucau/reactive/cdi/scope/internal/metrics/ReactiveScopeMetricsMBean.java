@@ -0,0 +1,33 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.metrics;
+
+import java.util.Map;
+
+public interface ReactiveScopeMetricsMBean {
+    long getActiveScopes();
+
+    long getStartedScopes();
+
+    long getDestroyedScopes();
+
+    /**
+     * @return the number of destroyed scopes per duration bucket, see {@link #getScopeDurationBucketsMillis()}.
+     */
+    long[] getScopeDurationHistogram();
+
+    /**
+     * @return the upper bound (inclusive) of the duration buckets, the last bucket has no bound.
+     */
+    long[] getScopeDurationBucketsMillis();
+
+    double getMeanScopeDurationMillis();
+
+    double getMeanDestroyLatencyMicros();
+
+    long getMaxDestroyLatencyMicros();
+
+    long getHops();
+
+    Map<String, Long> getBeanCreations();
+
+    void reset();
+}
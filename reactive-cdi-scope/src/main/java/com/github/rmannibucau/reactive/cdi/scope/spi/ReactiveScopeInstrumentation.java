@@ -0,0 +1,49 @@
+package com.github.rmannibucau.reactive.cdi.scope.spi;
+
+import javax.enterprise.context.spi.Contextual;
+
+/**
+ * Callbacks of the reactive scope lifecycle, enabled with {@code -Dreactive-cdi.scope.instrumentation}
+ * ({@code true} for the JMX exposed default implementation or the name of an implementation having a default constructor).
+ * Callbacks are called on hot paths so they must not block nor throw.
+ */
+public interface ReactiveScopeInstrumentation {
+    /**
+     * Disabled instrumentation.
+     */
+    ReactiveScopeInstrumentation NOOP = new ReactiveScopeInstrumentation() {
+    };
+
+    /**
+     * @return a token passed back to {@link #onScopeDestroyed(long, long)}, a timestamp for ex.
+     */
+    default long onScopeStart() {
+        return 0;
+    }
+
+    /**
+     * @return a token passed back to {@link #onScopeDestroyed(long, long)}, a timestamp for ex.
+     */
+    default long onScopeDestroyStart() {
+        return 0;
+    }
+
+    /**
+     * @param startToken   the value returned by {@link #onScopeStart()} for this scope.
+     * @param destroyToken the value returned by {@link #onScopeDestroyStart()} for this scope.
+     */
+    default void onScopeDestroyed(final long startToken, final long destroyToken) {
+        // no-op
+    }
+
+    default void onBeanCreated(final Contextual<?> contextual) {
+        // no-op
+    }
+
+    /**
+     * Called each time a captured context is bound to a thread (task of a wrapped executor, wrapped callback...).
+     */
+    default void onHop() {
+        // no-op
+    }
+}
@@ -1,19 +1,45 @@
 package com.github.rmannibucau.reactive.cdi.scope.api;
 
 import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.forkjoin.ReactiveRecursiveTask;
+import com.github.rmannibucau.reactive.cdi.scope.internal.metrics.ReactiveScopeMetrics;
+import com.github.rmannibucau.reactive.cdi.scope.spi.ReactiveScopeInstrumentation;
 import org.apache.meecrowave.junit5.MeecrowaveConfig;
 import org.junit.jupiter.api.Test;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.ObservesAsync;
+import javax.enterprise.inject.Typed;
+import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.inject.Inject;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 @MeecrowaveConfig(scanningPackageIncludes = "com.github.rmannibucau.reactive.cdi.scope.api.ReactiveScopedTest")
 class ReactiveScopedTest {
@@ -26,6 +52,18 @@ class ReactiveScopedTest {
     @Inject
     private ReactiveContextBean bean;
 
+    @Inject
+    private OtherReactiveContextBean otherBean;
+
+    @Inject
+    private BranchLocalBean branchBean;
+
+    @Inject
+    private SiblingReaderBean siblingReader;
+
+    @Inject
+    private Event<AsyncPayload> asyncEvent;
+
     @Test
     void control() {
         assertFalse(isActive());
@@ -40,6 +78,20 @@ class ReactiveScopedTest {
         assertFalse(isActive());
     }
 
+    @Test
+    void finishedScopeIsInactiveForBoundThreads() {
+        final var previous = context.start();
+        try {
+            final var self = bean.self();
+            context.finish(previous);
+            assertEquals(1, self.getDestroyed());
+            assertFalse(isActive()); // still bound but finished
+            assertThrows(ContextNotActiveException.class, () -> bean.self());
+        } finally {
+            context.reset(previous);
+        }
+    }
+
     @Test
     void propagate() {
         assertFalse(isActive());
@@ -72,6 +124,718 @@ class ReactiveScopedTest {
         assertEquals(1, self.getDestroyed());
     }
 
+    @Test
+    void asyncStages() {
+        final var previous = context.start();
+        try {
+            bean.setContext("async");
+            final var stage = context.wrapCompletableFuture(CompletableFuture.completedFuture("start"))
+                    .thenApplyAsync(it -> it + ">" + bean.getContext()) // default executor, not wrapped
+                    .thenComposeAsync(it -> CompletableFuture.supplyAsync(() -> it + ">composed"))
+                    .thenApplyAsync(it -> it + ">" + bean.getContext()) // dependent stages stay reactive
+                    .minimalCompletionStage()
+                    .thenApplyAsync(it -> it + ">" + bean.getContext());
+            assertEquals("start>async>composed>async>async", stage.toCompletableFuture().join());
+        } finally {
+            context.finish(previous);
+            context.reset(previous);
+        }
+    }
+
+    @Test
+    void wrappedFutureSharesOutcome() {
+        final var promise = new CompletableFuture<String>();
+        final var wrapped = context.wrapCompletableFuture(promise);
+        assertSame(wrapped, context.wrapCompletableFuture(wrapped));
+        wrapped.cancel(false);
+        assertTrue(promise.isCancelled());
+
+        final var minimal = CompletableFuture.completedFuture("minimal").minimalCompletionStage();
+        assertEquals("minimal", context.wrapCompletionStage(minimal).toCompletableFuture().join());
+    }
+
+    @Test
+    void virtualThreadExecutor() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "virtual threads not available");
+
+        final var previous = context.start();
+        final var executor = context.wrapVirtualThreadExecutor();
+        try {
+            bean.setContext("virtual");
+            assertEquals("virtual", executor.submit(() -> bean.getContext()).get());
+        } finally {
+            executor.shutdownNow();
+            context.finish(previous);
+            context.reset(previous);
+        }
+    }
+
+    @Test
+    void affinityExecutor() throws Exception {
+        final var executor = context.newAffinityExecutorService(2);
+        try {
+            for (final var name : List.of("first", "second")) {
+                final var previous = context.start();
+                try {
+                    bean.setContext(name);
+                    final var threads = new ArrayList<String>();
+                    final var chained = new CountDownLatch(1);
+                    final var first = CompletableFuture.supplyAsync(() -> {
+                        threads.add(Thread.currentThread().getName());
+                        try { // let the next stage be submitted by the worker
+                            chained.await(1, MINUTES);
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return bean.getContext();
+                    }, executor);
+                    final var second = first.thenApplyAsync(value -> {
+                        threads.add(Thread.currentThread().getName());
+                        return value + ":" + bean.getContext();
+                    }, executor);
+                    chained.countDown();
+                    final var result = second.get(1, MINUTES);
+                    assertEquals(name + ":" + name, result);
+                    assertEquals(1, threads.stream().distinct().count(), threads::toString); // same worker
+                } finally {
+                    context.finish(previous);
+                    context.reset(previous);
+                }
+            }
+            assertFalse(executor.submit(this::isActive).get(1, MINUTES)); // no leaked binding
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, MINUTES));
+        }
+    }
+
+    @Test
+    void affinityExecutorIdleAndShutdown() throws Exception {
+        final var executor = context.newAffinityExecutorService(2);
+        final var worker = executor.submit(Thread::currentThread).get(1, MINUTES);
+        final long end = System.nanoTime() + MINUTES.toNanos(1);
+        while (worker.getState() != Thread.State.WAITING && System.nanoTime() < end) { // parked, not polling
+            Thread.sleep(10);
+        }
+        assertEquals(Thread.State.WAITING, worker.getState());
+
+        final var ran = new AtomicInteger();
+        final var submitting = new CountDownLatch(1);
+        final var submitterPool = Executors.newSingleThreadExecutor();
+        try {
+            final var submitter = CompletableFuture.supplyAsync(() -> {
+                int accepted = 0;
+                while (true) {
+                    try {
+                        executor.execute(ran::incrementAndGet);
+                        accepted++;
+                        submitting.countDown();
+                    } catch (final RejectedExecutionException e) {
+                        return accepted;
+                    }
+                }
+            }, submitterPool);
+            assertTrue(submitting.await(1, MINUTES));
+            executor.shutdown();
+            final int accepted = submitter.get(1, MINUTES);
+            assertTrue(executor.awaitTermination(1, MINUTES));
+            assertEquals(accepted, ran.get()); // no task queued after the workers exited
+        } finally {
+            submitterPool.shutdownNow();
+        }
+    }
+
+    @Test
+    void scheduledExecutor() throws Exception {
+        final var previous = context.start();
+        final var scheduler = context.wrapScheduledExecutorService(Executors.newSingleThreadScheduledExecutor());
+        try {
+            bean.setContext("scheduled");
+            assertEquals("scheduled", scheduler.schedule(() -> bean.getContext(), 1, MILLISECONDS).get());
+
+            final var ticks = new CountDownLatch(3);
+            final var periodic = scheduler.scheduleAtFixedRate(() -> {
+                if ("scheduled".equals(bean.getContext())) {
+                    ticks.countDown();
+                }
+            }, 0, 1, MILLISECONDS);
+            assertTrue(ticks.await(1, MINUTES));
+            periodic.cancel(false);
+        } finally {
+            scheduler.shutdownNow();
+            context.finish(previous);
+            context.reset(previous);
+        }
+    }
+
+    @Test
+    void referenceCounting() throws Exception {
+        context.setReferenceCounting(true);
+        final var executor = context.wrapExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            final var previous = context.start();
+            bean.setContext("counted");
+            final var self = bean.self();
+            final var release = new CountDownLatch(1);
+            final var future = executor.submit(() -> {
+                release.await();
+                return bean.getContext();
+            });
+            context.finish(previous);
+            context.reset(previous);
+            assertEquals(0, self.getDestroyed()); // the task still holds the scope
+            assertEquals(1, context.getOutstandingScopes());
+
+            release.countDown();
+            assertEquals("counted", future.get());
+            assertEquals(1, self.getDestroyed());
+            assertEquals(0, context.getOutstandingScopes());
+            assertEquals(0, context.getActiveScopes());
+        } finally {
+            executor.shutdownNow();
+            context.setReferenceCounting(false);
+        }
+    }
+
+    @Test
+    void referenceCountingFutures() throws Exception {
+        context.setReferenceCounting(true);
+        try {
+            final var previous = context.start();
+            bean.setContext("future");
+            final var self = bean.self();
+            final var pending = new CompletableFuture<String>();
+            final var result = context.wrapCompletableFuture(pending)
+                    .thenApply(it -> it + "/" + bean.getContext())
+                    .thenCompose(it -> context.wrapCompletableFuture(new CompletableFuture<String>()).completeAsync(() -> it));
+            context.finish(previous);
+            context.reset(previous);
+            assertEquals(0, self.getDestroyed()); // the stages still hold the scope
+
+            pending.complete("done");
+            assertEquals("done/future", result.get(1, MINUTES));
+            // the waiters of a stage are woken before its own callbacks so the last reference is closed right after
+            final long end = System.nanoTime() + MINUTES.toNanos(1);
+            while (self.getDestroyed() == 0 && System.nanoTime() < end) {
+                Thread.sleep(1);
+            }
+            assertEquals(1, self.getDestroyed());
+            assertEquals(0, context.getOutstandingScopes());
+        } finally {
+            context.setReferenceCounting(false);
+        }
+    }
+
+    @Test
+    void referenceCountingPreDestroyUsesSiblingBean() {
+        context.setReferenceCounting(true);
+        try {
+            final var previous = context.start();
+            otherBean.setContext("counted");
+            final var reader = siblingReader.self();
+            final var reference = context.current().acquire();
+            context.finish(previous);
+            context.reset(previous);
+            assertNull(reader.getSiblingContext());
+
+            reference.close(); // last one, destroys the scope in this unbound thread
+            assertEquals("counted", reader.getSiblingContext());
+        } finally {
+            context.setReferenceCounting(false);
+        }
+    }
+
+    @Test
+    void referenceCountingScheduledShutdown() throws Exception {
+        context.setReferenceCounting(true);
+        try {
+            for (final boolean now : new boolean[]{false, true}) {
+                final var scheduler = context.wrapScheduledExecutorService(Executors.newSingleThreadScheduledExecutor());
+                final var previous = context.start();
+                final var self = bean.self();
+                scheduler.scheduleAtFixedRate(() -> bean.getContext(), 1, 1, MINUTES);
+                scheduler.schedule(() -> bean.getContext(), 1, MINUTES);
+                context.finish(previous);
+                context.reset(previous);
+                assertEquals(0, self.getDestroyed());
+
+                if (now) { // drops both
+                    assertEquals(2, scheduler.shutdownNow().size());
+                } else { // drops the periodic task, the delayed one still runs
+                    scheduler.shutdown();
+                    assertEquals(0, self.getDestroyed());
+                    assertEquals(1, scheduler.shutdownNow().size());
+                }
+                assertTrue(scheduler.awaitTermination(1, MINUTES));
+                assertEquals(1, self.getDestroyed());
+                assertEquals(0, context.getActiveScopes());
+            }
+        } finally {
+            context.setReferenceCounting(false);
+        }
+    }
+
+    @Test
+    void referenceCountingForkJoin() throws Exception {
+        context.setReferenceCounting(true);
+        final var pool = context.wrapForkJoinPool(new ForkJoinPool(2));
+        try {
+            final var previous = context.start();
+            bean.setContext("fj");
+            final var self = bean.self();
+            final var release = new CountDownLatch(1);
+            final var task = pool.submit(new ReactiveRecursiveTask<String>(context) {
+                @Override
+                protected String compute() {
+                    try {
+                        release.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                    return bean.getContext();
+                }
+            });
+            context.finish(previous);
+            context.reset(previous);
+            assertEquals(0, self.getDestroyed()); // the task still holds the scope
+
+            release.countDown();
+            assertEquals("fj", task.get(1, MINUTES));
+            assertEquals(1, self.getDestroyed());
+            assertEquals(0, context.getOutstandingScopes());
+        } finally {
+            pool.shutdownNow();
+            context.setReferenceCounting(false);
+        }
+    }
+
+    @Test
+    void referenceCountingShutdownNow() throws Exception {
+        context.setReferenceCounting(true);
+        final var executor = context.wrapExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            final var started = new CountDownLatch(1);
+            executor.execute(() -> { // outside of any scope, only blocks the worker
+                started.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(1, MINUTES));
+
+            final var previous = context.start();
+            final var self = bean.self();
+            executor.execute(() -> bean.getContext());
+            final var submitted = executor.submit(() -> bean.getContext());
+            context.finish(previous);
+            context.reset(previous);
+            assertEquals(0, self.getDestroyed());
+
+            assertEquals(2, executor.shutdownNow().size());
+            assertEquals(1, self.getDestroyed());
+            assertEquals(0, context.getOutstandingScopes());
+            assertFalse(submitted.isDone());
+        } finally {
+            executor.shutdownNow();
+            context.setReferenceCounting(false);
+        }
+    }
+
+    @Test
+    void fork() throws Exception {
+        final var executor = Executors.newFixedThreadPool(2);
+        final var previous = context.start();
+        try {
+            final var shared = bean.self();
+            final var rootBranch = branchBean.self();
+            final var forks = IntStream.range(0, 2).mapToObj(i -> context.current().fork()).toArray(ReactiveContext.Ctx[]::new);
+            final var branches = new ReactiveContextBean[forks.length];
+            for (int i = 0; i < forks.length; i++) {
+                final var fork = forks[i];
+                branches[i] = CompletableFuture.supplyAsync(fork.wrap(() -> {
+                    assertSame(shared, bean.self());
+                    final var branch = branchBean.self();
+                    assertSame(branch, branchBean.self());
+                    return branch;
+                }), executor).get(1, MINUTES);
+            }
+            assertNotSame(rootBranch, branches[0]);
+            assertNotSame(branches[0], branches[1]);
+
+            context.finish(forks[0]);
+            assertEquals(1, branches[0].getDestroyed());
+            assertEquals(0, branches[1].getDestroyed());
+            assertEquals(0, shared.getDestroyed());
+            assertEquals(0, rootBranch.getDestroyed());
+            context.finish(forks[1]);
+            assertEquals(1, branches[1].getDestroyed());
+
+            context.finish(previous);
+            assertEquals(1, shared.getDestroyed());
+            assertEquals(1, rootBranch.getDestroyed());
+        } finally {
+            context.reset(previous);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void destroyInForkKeepsParentBeans() {
+        final var previous = context.start();
+        try {
+            final var shared = bean.self();
+            final var fork = context.current().fork();
+            try {
+                final var branch = fork.wrap(() -> {
+                    final var local = branchBean.self();
+                    context.destroy(beanManager.resolve(beanManager.getBeans(ReactiveContextBean.class)));
+                    context.destroy(beanManager.resolve(beanManager.getBeans(BranchLocalBean.class)));
+                    assertSame(shared, bean.self());
+                    return local;
+                }).get();
+                assertEquals(0, shared.getDestroyed()); // owned by the parent scope
+                assertEquals(1, branch.getDestroyed());
+            } finally {
+                context.finish(fork);
+            }
+            assertEquals(0, shared.getDestroyed());
+        } finally {
+            context.finish(previous);
+            context.reset(previous);
+        }
+    }
+
+    @Test
+    void forkHoldsItsParent() {
+        context.setReferenceCounting(true);
+        try {
+            final var previous = context.start();
+            final var shared = bean.self();
+            final var fork = context.current().fork();
+            context.finish(previous);
+            context.reset(previous);
+            assertEquals(0, shared.getDestroyed());
+
+            final var branch = fork.wrap(() -> {
+                assertSame(shared, bean.self());
+                return branchBean.self();
+            }).get();
+            context.finish(fork);
+            assertEquals(1, branch.getDestroyed());
+            assertEquals(1, shared.getDestroyed());
+            assertEquals(0, context.getActiveScopes());
+        } finally {
+            context.setReferenceCounting(false);
+        }
+    }
+
+    @Test
+    void leakDetection() throws Exception {
+        context.setLeakDetection(ReactiveContext.LeakDetection.PARANOID, 1, true);
+        try {
+            final var finished = context.start();
+            context.finish(finished);
+            context.reset(finished);
+
+            final var leaked = startAndForget();
+            final long end = System.nanoTime() + MINUTES.toNanos(1);
+            while (context.getLeakedScopes() == 0 && System.nanoTime() < end) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            assertEquals(1, context.getLeakedScopes());
+            while (leaked.getDestroyed() == 0 && System.nanoTime() < end) { // destroyed by the cleaner thread
+                Thread.sleep(10);
+            }
+            assertEquals(1, leaked.getDestroyed());
+        } finally {
+            context.setLeakDetection(ReactiveContext.LeakDetection.DISABLED, 0, false);
+        }
+    }
+
+    private ReactiveContextBean startAndForget() {
+        final var root = context.start();
+        final var self = bean.self();
+        context.reset(root); // but no finish
+        return self;
+    }
+
+    @Test
+    void instrumentation() throws Exception {
+        final var metrics = new ReactiveScopeMetrics();
+        context.setInstrumentation(metrics);
+        final var executor = context.wrapExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            final var previous = context.start();
+            bean.setContext("metrics");
+            assertEquals("metrics", executor.submit(() -> bean.getContext()).get());
+            context.finish(previous);
+            context.reset(previous);
+
+            assertEquals(1, metrics.getStartedScopes());
+            assertEquals(1, metrics.getDestroyedScopes());
+            assertEquals(0, metrics.getActiveScopes());
+            assertEquals(1, LongStream.of(metrics.getScopeDurationHistogram()).sum());
+            assertEquals(1, metrics.getHops());
+            assertEquals(1, metrics.getBeanCreations().size());
+            assertEquals(1, metrics.getBeanCreations().values().iterator().next());
+        } finally {
+            executor.shutdownNow();
+            context.setInstrumentation(ReactiveScopeInstrumentation.NOOP);
+        }
+    }
+
+    @Test
+    void lazyStart() throws Exception {
+        final var metrics = new ReactiveScopeMetrics();
+        context.setInstrumentation(metrics);
+        final var executor = context.wrapExecutorService(Executors.newSingleThreadExecutor());
+        try {
+            final var unused = context.startLazily();
+            assertTrue(context.isActive());
+            context.finish(unused);
+            context.reset(unused);
+            assertEquals(0, metrics.getStartedScopes());
+
+            final var root = context.startLazily();
+            try {
+                final var self = executor.submit(() -> bean.self()).get(); // created by the thread using it
+                assertEquals(1, metrics.getStartedScopes());
+                assertSame(self, bean.self());
+                context.finish(root);
+                assertEquals(1, self.getDestroyed());
+                assertFalse(context.isActive());
+            } finally {
+                context.reset(root);
+            }
+            assertEquals(1, metrics.getDestroyedScopes());
+        } finally {
+            executor.shutdownNow();
+            context.setInstrumentation(ReactiveScopeInstrumentation.NOOP);
+        }
+    }
+
+    @Test
+    void lazyStartWrappedCallbacks() throws Exception {
+        final var executor = Executors.newSingleThreadExecutor();
+        final var root = context.startLazily();
+        try {
+            context.<String, String>wrapFunction(it -> it).apply("same thread"); // restores the lazy scope
+            assertTrue(context.isActive());
+            assertTrue(context.wrapCompletableFuture(CompletableFuture.completedFuture("sync"))
+                    .thenApply(it -> context.isActive())
+                    .get(1, MINUTES));
+            assertTrue(context.isActive());
+
+            final var nested = context.<String, String>wrapFunction(value -> {
+                final String result = context.<String, String>wrapFunction(it -> {
+                    bean.setContext(it);
+                    return bean.getContext();
+                }).apply(value);
+                assertTrue(context.isActive());
+                return result;
+            });
+            assertEquals("other thread", executor.submit(() -> nested.apply("other thread")).get(1, MINUTES));
+            assertEquals("other thread", bean.getContext());
+        } finally {
+            executor.shutdownNow();
+            context.finish(root);
+            context.reset(root);
+        }
+        assertFalse(context.isActive());
+    }
+
+    @Test
+    void offloadedDestruction() throws Exception {
+        final var executor = Executors.newSingleThreadExecutor();
+        context.setDestruction(ReactiveContext.Destruction.OFFLOAD, executor, null);
+        try {
+            final var previous = context.start();
+            final var self = bean.self();
+            context.finish(previous);
+            context.reset(previous);
+
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, MINUTES));
+            assertEquals(1, self.getDestroyed());
+            assertTrue(self.isDestroyedInScope());
+        } finally {
+            executor.shutdownNow();
+            context.setDestruction(ReactiveContext.Destruction.INLINE, null, null);
+        }
+    }
+
+    @Test
+    void preDestroyUsesSiblingBean() throws Exception {
+        final var executor = Executors.newSingleThreadExecutor();
+        try {
+            for (final var mode : List.of(ReactiveContext.Destruction.INLINE, ReactiveContext.Destruction.OFFLOAD)) {
+                context.setDestruction(mode, executor, null);
+                final var previous = context.start();
+                otherBean.setContext(mode.name());
+                final var reader = siblingReader.self();
+                context.finish(previous);
+                context.reset(previous);
+                executor.submit(() -> {}).get(1, MINUTES); // offloaded destruction done
+                assertEquals(mode.name(), reader.getSiblingContext());
+            }
+        } finally {
+            executor.shutdownNow();
+            context.setDestruction(ReactiveContext.Destruction.INLINE, null, null);
+        }
+    }
+
+    @Test
+    void emptyScopeIsNotOffloaded() {
+        context.setDestruction(ReactiveContext.Destruction.OFFLOAD, task -> {
+            throw new IllegalStateException("nothing to destroy");
+        }, null);
+        try {
+            final var previous = context.start();
+            context.finish(previous);
+            context.reset(previous);
+        } finally {
+            context.setDestruction(ReactiveContext.Destruction.INLINE, null, null);
+        }
+    }
+
+    @Test
+    void destroyedBeanIsResolvedAgain() {
+        final var previous = context.start();
+        try {
+            final var first = bean.self();
+            assertSame(first, bean.self()); // resolved from the last resolved cache
+            context.destroy(beanManager.resolve(beanManager.getBeans(ReactiveContextBean.class)));
+            assertEquals(1, first.getDestroyed());
+            final var second = bean.self();
+            assertNotSame(first, second);
+            assertEquals(0, second.getDestroyed());
+        } finally {
+            context.finish(previous);
+            context.reset(previous);
+        }
+    }
+
+    @Test
+    void parallelDestruction() {
+        final var executor = Executors.newFixedThreadPool(2);
+        context.setDestruction(ReactiveContext.Destruction.PARALLEL, executor, null); // no timeout, waits
+        try {
+            final var previous = context.start();
+            final var self = bean.self();
+            final var other = otherBean.self();
+            context.finish(previous);
+            context.reset(previous);
+            assertEquals(1, self.getDestroyed());
+            assertEquals(1, other.getDestroyed());
+            assertTrue(self.isDestroyedInScope());
+            assertTrue(other.isDestroyedInScope());
+        } finally {
+            executor.shutdownNow();
+            context.setDestruction(ReactiveContext.Destruction.INLINE, null, null);
+        }
+    }
+
+    @Test
+    void concurrentFirstAccess() throws Exception {
+        final var previous = context.start();
+        final var pool = context.wrapExecutorService(Executors.newFixedThreadPool(8));
+        try {
+            final var start = new CountDownLatch(1);
+            final var lookups = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        try {
+                            start.await();
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return bean.self();
+                    }, pool))
+                    .toArray(CompletableFuture<?>[]::new);
+            start.countDown();
+            final var self = bean.self();
+            for (final var lookup : lookups) {
+                assertSame(self, lookup.get(1, MINUTES));
+            }
+            assertEquals(1, self.getConstructed());
+
+            @SuppressWarnings("unchecked") final var definition = (Bean<OtherReactiveContextBean>) beanManager.resolve(
+                    beanManager.getBeans(OtherReactiveContextBean.class));
+            final var other = context.getAsync(definition, beanManager.createCreationalContext(definition))
+                    .toCompletableFuture().get(1, MINUTES);
+            assertSame(otherBean.self(), other);
+        } finally {
+            pool.shutdownNow();
+            context.finish(previous);
+            context.reset(previous);
+        }
+    }
+
+    @Test
+    void runInScope() throws Exception {
+        final var pending = new CompletableFuture<String>();
+        final var self = new AtomicReference<ReactiveContextBean>();
+        final var result = context.runInScope(() -> {
+            bean.setContext("scoped");
+            self.set(bean.self());
+            return pending.thenApply(it -> it + "/" + self.get().getContext());
+        });
+        assertFalse(isActive());
+        assertEquals(0, self.get().getDestroyed());
+
+        pending.complete("done");
+        assertEquals("done/scoped", result.toCompletableFuture().get(1, MINUTES));
+        assertEquals(1, self.get().getDestroyed());
+    }
+
+    @Test
+    void forkJoin() {
+        final var previous = context.start();
+        final var pool = context.wrapForkJoinPool(new ForkJoinPool(4));
+        try {
+            bean.setContext("fj");
+            assertEquals(1024, pool.invoke(new CountContext(context, bean, 0, 1024)));
+        } finally {
+            pool.shutdownNow();
+            context.finish(previous);
+            context.reset(previous);
+        }
+    }
+
+    @Test
+    void parallelStream() {
+        final var previous = context.start();
+        try {
+            bean.setContext("stream");
+            assertEquals(10_000, context.wrapParallelStream(IntStream.range(0, 10_000).boxed())
+                    .filter(i -> "stream".equals(bean.getContext()))
+                    .count());
+        } finally {
+            context.finish(previous);
+            context.reset(previous);
+        }
+    }
+
+    @Test
+    void asyncEvent() throws Exception {
+        final var previous = context.start();
+        final var pool = Executors.newSingleThreadExecutor();
+        try {
+            bean.setContext("event");
+            final var payload = asyncEvent.fireAsync(new AsyncPayload(), context.wrapNotificationOptions(pool))
+                    .toCompletableFuture().get(1, MINUTES);
+            assertEquals("event", payload.context);
+            assertNotSame(Thread.currentThread(), payload.thread);
+        } finally {
+            pool.shutdownNow();
+            context.finish(previous);
+            context.reset(previous);
+        }
+    }
+
     private boolean isActive() {
         try {
             return beanManager.getContext(ReactiveScoped.class).isActive();
@@ -80,10 +844,88 @@ class ReactiveScopedTest {
         }
     }
 
+    private static class CountContext extends ReactiveRecursiveTask<Integer> {
+        private final ReactiveContext context;
+        private final ReactiveContextBean bean;
+        private final int from;
+        private final int to;
+
+        private CountContext(final ReactiveContext context, final ReactiveContextBean bean, final int from, final int to) {
+            super(context);
+            this.context = context;
+            this.bean = bean;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= 16) {
+                return "fj".equals(bean.getContext()) ? to - from : 0;
+            }
+            final var middle = (from + to) / 2;
+            final var left = new CountContext(context, bean, from, middle);
+            left.fork();
+            return new CountContext(context, bean, middle, to).compute() + left.join();
+        }
+    }
+
+    public static class AsyncPayload {
+        private volatile String context;
+        private volatile Thread thread;
+    }
+
+    @ApplicationScoped
+    public static class AsyncObserver {
+        @Inject
+        private ReactiveContextBean bean;
+
+        public void onEvent(@ObservesAsync final AsyncPayload payload) {
+            payload.context = bean.getContext();
+            payload.thread = Thread.currentThread();
+        }
+    }
+
+    @ReactiveScoped
+    @Typed(OtherReactiveContextBean.class)
+    public static class OtherReactiveContextBean extends ReactiveContextBean {
+    }
+
+    @ReactiveScoped
+    public static class SiblingReaderBean {
+        @Inject
+        private OtherReactiveContextBean other;
+
+        private volatile String siblingContext;
+
+        @PreDestroy
+        private void destroy() {
+            siblingContext = other.getContext();
+        }
+
+        public SiblingReaderBean self() {
+            return this;
+        }
+
+        public String getSiblingContext() {
+            return siblingContext;
+        }
+    }
+
+    @BranchLocal
+    @ReactiveScoped
+    @Typed(BranchLocalBean.class)
+    public static class BranchLocalBean extends ReactiveContextBean {
+    }
+
     @ReactiveScoped
     public static class ReactiveContextBean {
+        @Inject
+        private ReactiveContext reactiveContext;
+
         private int constructed;
         private int destroyed;
+        private boolean destroyedInScope;
         private String context;
 
         @PostConstruct
@@ -94,6 +936,7 @@ class ReactiveScopedTest {
         @PreDestroy
         private void destroy() {
             destroyed++;
+            destroyedInScope = reactiveContext.current().hasScope();
         }
 
         public String getContext() {
@@ -115,5 +958,9 @@ class ReactiveScopedTest {
         public int getDestroyed() {
             return destroyed;
         }
+
+        public boolean isDestroyedInScope() {
+            return destroyedInScope;
+        }
     }
 }
@@ -0,0 +1,76 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// no container: the CDI stack of the tests does not start on the Java versions providing ScopedValue
+class ScopedValueBindingTest {
+    @Test
+    void propagation() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "ScopedValue not available");
+        final var scoped = new ReactiveContext(); // the binding is selected before any use
+        scoped.setPropagation(ReactiveContext.Propagation.SCOPED_VALUE);
+        assertEquals(ReactiveContext.Propagation.SCOPED_VALUE, scoped.getPropagation());
+
+        final var first = scoped.start(); // outside of a bound task: thread local fallback
+        final var firstSnapshot = scoped.current();
+        scoped.reset(first);
+        final var second = scoped.start();
+        final var secondSnapshot = scoped.current();
+        scoped.reset(second);
+        assertFalse(scoped.current().hasScope());
+        try {
+            final var outside = new AtomicReference<ReactiveContext.Ctx>();
+            firstSnapshot.wrap(() -> {
+                assertSame(firstSnapshot, scoped.current());
+
+                final var previous = scoped.push(secondSnapshot); // only mutates the binding of the task
+                assertSame(secondSnapshot, scoped.current());
+                scoped.reset(previous);
+                assertSame(firstSnapshot, scoped.current());
+
+                final var token = secondSnapshot.enter();
+                assertSame(secondSnapshot, scoped.current());
+                secondSnapshot.exit(token);
+                assertSame(firstSnapshot, scoped.current());
+
+                final var thread = new Thread(() -> outside.set(scoped.current())); // not bound in other threads
+                thread.start();
+                try {
+                    thread.join(MINUTES.toMillis(1));
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+            }).run();
+            assertFalse(outside.get().hasScope());
+            assertFalse(scoped.current().hasScope()); // the thread local fallback was not touched by the task
+
+            final var token = secondSnapshot.enter(); // fallback
+            assertSame(secondSnapshot, scoped.current());
+            assertEquals("nested", firstSnapshot.wrapCallable(() -> {
+                assertSame(firstSnapshot, scoped.current());
+                return "nested";
+            }).call());
+            assertSame(secondSnapshot, scoped.current());
+            secondSnapshot.exit(token);
+            assertFalse(scoped.current().hasScope());
+
+            final var error = assertThrows(IllegalStateException.class, () -> firstSnapshot.wrapCallable(() -> {
+                throw new IllegalStateException("failing on purpose");
+            }).call());
+            assertEquals("failing on purpose", error.getMessage());
+        } finally {
+            scoped.finish(first);
+            scoped.finish(second);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.flow;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.reactivestreams.FlowAdapters;
+import org.reactivestreams.example.unicast.AsyncIterablePublisher;
+import org.reactivestreams.tck.TestEnvironment;
+import org.reactivestreams.tck.flow.FlowPublisherVerification;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+
+public class ReactivePublisherTckTest extends FlowPublisherVerification<Long> {
+    private final ReactiveContext context = new ReactiveContext();
+    private final ReactiveContext.Ctx root = context.start();
+    private final ReactiveContext.Ctx captured = context.current();
+    private ExecutorService executor;
+
+    public ReactivePublisherTckTest() {
+        super(new TestEnvironment());
+        context.reset(root); // the publisher runs in other threads
+    }
+
+    @BeforeMethod
+    public void startExecutor() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterMethod
+    public void stopExecutor() {
+        executor.shutdownNow();
+    }
+
+    @AfterClass
+    public void finish() {
+        context.finish(root);
+    }
+
+    @Override
+    public Flow.Publisher<Long> createFlowPublisher(final long elements) {
+        return wrap(FlowAdapters.toFlowPublisher(new AsyncIterablePublisher<>(() -> new Iterator<>() {
+            private long remaining = elements;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Long next() {
+                if (remaining-- <= 0) {
+                    throw new NoSuchElementException();
+                }
+                return remaining;
+            }
+        }, executor)));
+    }
+
+    @Override
+    public Flow.Publisher<Long> createFailedFlowPublisher() {
+        return wrap(FlowAdapters.toFlowPublisher(new AsyncIterablePublisher<Long>(() -> {
+            throw new IllegalStateException("failed on purpose");
+        }, executor)));
+    }
+
+    private Flow.Publisher<Long> wrap(final Flow.Publisher<Long> publisher) {
+        final var previous = context.push(captured);
+        try {
+            return context.wrapPublisher(publisher);
+        } finally {
+            context.reset(previous);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.rmannibucau.reactive.cdi.scope.internal.flow;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.reactivestreams.FlowAdapters;
+import org.reactivestreams.example.unicast.SyncSubscriber;
+import org.reactivestreams.tck.TestEnvironment;
+import org.reactivestreams.tck.flow.FlowSubscriberBlackboxVerification;
+import org.testng.annotations.AfterClass;
+
+import java.util.concurrent.Flow;
+
+public class ReactiveSubscriberTckTest extends FlowSubscriberBlackboxVerification<Integer> {
+    private final ReactiveContext context = new ReactiveContext();
+    private final ReactiveContext.Ctx root = context.start();
+    private final ReactiveContext.Ctx captured = context.current();
+
+    public ReactiveSubscriberTckTest() {
+        super(new TestEnvironment());
+        context.reset(root); // signals come from other threads
+    }
+
+    @AfterClass
+    public void finish() {
+        context.finish(root);
+    }
+
+    @Override
+    public Flow.Subscriber<Integer> createFlowSubscriber() {
+        final var previous = context.push(captured);
+        try {
+            return context.wrapSubscriber(FlowAdapters.toFlowSubscriber(new SyncSubscriber<Integer>() {
+                @Override
+                protected boolean whenNext(final Integer element) {
+                    if (!context.isActive()) {
+                        throw new IllegalStateException("Context not propagated");
+                    }
+                    return true;
+                }
+            }));
+        } finally {
+            context.reset(previous);
+        }
+    }
+
+    @Override
+    public Integer createElement(final int element) {
+        return element;
+    }
+}
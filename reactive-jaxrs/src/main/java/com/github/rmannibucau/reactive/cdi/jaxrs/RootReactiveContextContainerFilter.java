@@ -0,0 +1,114 @@
+package com.github.rmannibucau.reactive.cdi.jaxrs;
+
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+
+import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Providers;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Servlet free flavor of the servlet {@code RootReactiveContextFilter}: the scope is started before the resource
+ * and finished by the response filter, i.e. once the {@code CompletionStage} returned by the resource completed.
+ *
+ * JAX-RS has no hook after the resource method, {@link RootReactiveContextInterceptor} (bound to CDI resources by
+ * {@link RootReactiveContextExtension}) provides it: it unbinds the request thread when the resource returns
+ * a pending stage (the response filter runs in the completing thread) and finishes the scope on an exception
+ * without exception mapper since the response filter is skipped in that case.
+ * For resources which are not CDI beans, the request thread stays bound until it serves another request
+ * (to a scope which is inactive once finished) when the response is asynchronous and unmapped exceptions
+ * are not handled.
+ */
+public class RootReactiveContextContainerFilter implements ContainerRequestFilter, ContainerResponseFilter {
+    private static final String ROOT = ReactiveContext.Ctx.class.getName();
+    private static final ThreadLocal<Root> REQUEST = new ThreadLocal<>(); // hands over the root to the interceptor
+
+    @Inject
+    private ReactiveContext context;
+
+    @Context
+    private Providers providers;
+
+    @Override
+    public void filter(final ContainerRequestContext requestContext) {
+        final var root = new Root(context, context.start(), providers);
+        requestContext.setProperty(ROOT, root);
+        REQUEST.set(root);
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext) {
+        final var root = requestContext.getProperty(ROOT);
+        if (!Root.class.isInstance(root)) { // aborted before our request filter, drop what a previous request left
+            final var previous = REQUEST.get();
+            if (previous != null) {
+                previous.unbindRequestThread();
+            }
+            return;
+        }
+        requestContext.removeProperty(ROOT);
+        Root.class.cast(root).finish();
+    }
+
+    static Root current() {
+        return REQUEST.get();
+    }
+
+    static class Root {
+        private static final VarHandle FINISHED;
+
+        static {
+            try {
+                FINISHED = MethodHandles.lookup().findVarHandle(Root.class, "finished", boolean.class);
+            } catch (final NoSuchFieldException | IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private final ReactiveContext context;
+        private final ReactiveContext.Ctx ctx;
+        private final Providers providers;
+        private final Thread thread = Thread.currentThread();
+        private volatile boolean finished;
+        int depth; // intercepted resource calls in progress, only used by the request thread
+
+        private Root(final ReactiveContext context, final ReactiveContext.Ctx ctx, final Providers providers) {
+            this.context = context;
+            this.ctx = ctx;
+            this.providers = providers;
+        }
+
+        boolean isRequestThread() {
+            return thread == Thread.currentThread();
+        }
+
+        // the request thread is done with the request, the scope lives until the response filter
+        void unbindRequestThread() {
+            if (isRequestThread()) {
+                if (REQUEST.get() == this) {
+                    REQUEST.remove();
+                }
+                context.reset(ctx);
+            }
+        }
+
+        void finish() {
+            if (FINISHED.compareAndSet(this, false, true)) {
+                context.finish(ctx);
+            }
+            unbindRequestThread();
+        }
+
+        // the response filters only run for mapped exceptions (WebApplicationException have a default mapping)
+        boolean isUnmapped(final Throwable error) {
+            return !WebApplicationException.class.isInstance(error) &&
+                    (providers == null || providers.getExceptionMapper(error.getClass()) == null);
+        }
+    }
+}
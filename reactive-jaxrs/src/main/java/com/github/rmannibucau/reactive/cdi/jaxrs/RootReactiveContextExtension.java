@@ -0,0 +1,31 @@
+package com.github.rmannibucau.reactive.cdi.jaxrs;
+
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.BeforeBeanDiscovery;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+import javax.enterprise.inject.spi.WithAnnotations;
+import javax.enterprise.util.AnnotationLiteral;
+import javax.ws.rs.Path;
+
+/**
+ * Binds {@link RootReactiveContextInterceptor} to the CDI resources (and sub-resources).
+ */
+public class RootReactiveContextExtension implements Extension {
+    private static final RootReactiveContextInterceptor.Binding BINDING = new BindingLiteral();
+
+    void addInterceptor(@Observes final BeforeBeanDiscovery beforeBeanDiscovery, final BeanManager beanManager) {
+        beforeBeanDiscovery.addAnnotatedType(
+                beanManager.createAnnotatedType(RootReactiveContextInterceptor.class),
+                RootReactiveContextInterceptor.class.getName());
+    }
+
+    void bindResources(@Observes @WithAnnotations(Path.class) final ProcessAnnotatedType<?> processAnnotatedType) {
+        processAnnotatedType.configureAnnotatedType().add(BINDING);
+    }
+
+    private static class BindingLiteral extends AnnotationLiteral<RootReactiveContextInterceptor.Binding>
+            implements RootReactiveContextInterceptor.Binding {
+    }
+}
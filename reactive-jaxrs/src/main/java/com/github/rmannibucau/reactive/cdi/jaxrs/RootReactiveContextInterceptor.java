@@ -0,0 +1,94 @@
+package com.github.rmannibucau.reactive.cdi.jaxrs;
+
+import javax.annotation.Priority;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InterceptorBinding;
+import javax.interceptor.InvocationContext;
+import javax.ws.rs.container.Suspended;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Runs after the resource method in the request thread for {@link RootReactiveContextContainerFilter}:
+ * unbinds the request thread from the scope of an asynchronous response and finishes the scope
+ * when the resource fails with an exception no exception mapper handles.
+ */
+@Interceptor
+@RootReactiveContextInterceptor.Binding
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class RootReactiveContextInterceptor {
+    // the interceptor instances follow the resource lifecycle, the lookup is cached per class for all of them
+    private static final ClassValue<Set<Method>> SUSPENDED = new ClassValue<>() {
+        @Override
+        protected Set<Method> computeValue(final Class<?> type) {
+            return Stream.of(type.getDeclaredMethods())
+                    .filter(method -> Stream.of(method.getParameterAnnotations())
+                            .flatMap(Stream::of)
+                            .map(Annotation::annotationType)
+                            .anyMatch(Suspended.class::equals))
+                    .collect(toSet());
+        }
+    };
+
+    @AroundInvoke
+    public Object around(final InvocationContext invocationContext) throws Exception {
+        final var root = RootReactiveContextContainerFilter.current();
+        if (root == null || !root.isRequestThread() || root.depth > 0) { // not a filtered request or a nested call
+            return invocationContext.proceed();
+        }
+        final Object result;
+        root.depth++;
+        try {
+            result = invocationContext.proceed();
+        } catch (final Exception | Error e) {
+            if (root.isUnmapped(e)) {
+                root.finish();
+            }
+            throw e;
+        } finally {
+            root.depth--;
+        }
+        if (result instanceof CompletionStage<?>) {
+            final CompletionStage<?> stage = CompletionStage.class.cast(result);
+            final var completed = new AtomicBoolean();
+            stage.whenComplete((value, error) -> {
+                completed.set(true);
+                if (error != null && root.isUnmapped(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error)) {
+                    root.finish();
+                }
+            });
+            if (!completed.get()) { // the response filter will run in the completing thread
+                root.unbindRequestThread();
+            }
+        } else if (isSuspended(invocationContext)) {
+            root.unbindRequestThread();
+        }
+        return result;
+    }
+
+    private boolean isSuspended(final InvocationContext invocationContext) {
+        final var method = invocationContext.getMethod();
+        return SUSPENDED.get(method.getDeclaringClass()).contains(method);
+    }
+
+    @Inherited
+    @InterceptorBinding
+    @Retention(RUNTIME)
+    @Target({TYPE, METHOD})
+    public @interface Binding {
+    }
+}
@@ -0,0 +1,166 @@
+package com.github.rmannibucau.reactive.cdi.jaxrs;
+
+import com.github.rmannibucau.reactive.cdi.scope.api.ReactiveScoped;
+import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import org.apache.meecrowave.configuration.Configuration;
+import org.apache.meecrowave.junit5.MeecrowaveConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.ext.Provider;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+import static java.util.concurrent.CompletableFuture.completedStage;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@MeecrowaveConfig(scanningPackageIncludes = "com.github.rmannibucau.reactive.cdi.jaxrs.RootReactiveContextContainerFilterTest")
+class RootReactiveContextContainerFilterTest {
+    @Inject
+    private SpyState spyState;
+
+    @Inject
+    private Configuration configuration;
+
+    @BeforeEach
+    void reset() {
+        spyState.setEvent(new ArrayList<>());
+    }
+
+    @Test
+    void propagateWithAutoStartAndClean() {
+        assertEquals(200, call(""));
+        assertEquals(List.of("create", "get", "async", "destroy"), spyState.getEvent());
+    }
+
+    @Test
+    void synchronous() {
+        assertEquals(200, call("/sync"));
+        assertEquals(List.of("create", "sync", "destroy"), spyState.getEvent());
+    }
+
+    @Test
+    void suspended() {
+        assertEquals(200, call("/suspended"));
+        assertEquals(List.of("create", "suspended", "async", "destroy"), spyState.getEvent());
+    }
+
+    @Test
+    void unmappedException() {
+        assertEquals(500, call("/error"));
+        assertEquals(List.of("create", "error", "destroy"), spyState.getEvent());
+    }
+
+    private int call(final String path) {
+        final var client = ClientBuilder.newClient();
+        try {
+            return client.target("http://localhost:" + configuration.getHttpPort() + "/RootReactiveContextContainerFilterTest" + path)
+                    .request(TEXT_PLAIN_TYPE)
+                    .get()
+                    .getStatus();
+        } finally {
+            client.close();
+        }
+    }
+
+    @ApplicationScoped
+    @Path("RootReactiveContextContainerFilterTest")
+    public static class Endpoint {
+        @Inject
+        private ScopedState state;
+
+        @Inject
+        private ReactiveContext context;
+
+        @GET
+        @Produces(TEXT_PLAIN)
+        public CompletionStage<String> get() {
+            state.add("get");
+            return completedStage(true).thenApplyAsync(it -> { // change of thread
+                state.add("async");
+                return "called";
+            }, context.wrapExecutor(command -> new Thread(command).start()));
+        }
+
+        @GET
+        @Path("sync")
+        @Produces(TEXT_PLAIN)
+        public String sync() {
+            state.add("sync");
+            return "called";
+        }
+
+        @GET
+        @Path("suspended")
+        @Produces(TEXT_PLAIN)
+        public void suspended(@Suspended final AsyncResponse response) {
+            state.add("suspended");
+            context.wrapExecutor(command -> new Thread(command).start()).execute(() -> {
+                state.add("async");
+                response.resume("called");
+            });
+        }
+
+        @GET
+        @Path("error")
+        @Produces(TEXT_PLAIN)
+        public String error() {
+            state.add("error");
+            throw new IllegalStateException("failing on purpose");
+        }
+    }
+
+    @Provider
+    @Dependent
+    @PreMatching
+    public static class Register extends RootReactiveContextContainerFilter {
+    }
+
+    @ReactiveScoped
+    public static class ScopedState {
+        @Inject
+        private SpyState spyState;
+
+        public void add(final String event) {
+            spyState.getEvent().add(event);
+        }
+
+        @PostConstruct
+        private void create() {
+            spyState.getEvent().add("create");
+        }
+
+        @PreDestroy
+        private void destroy() {
+            spyState.getEvent().add("destroy");
+        }
+    }
+
+    @ApplicationScoped
+    public static class SpyState {
+        private List<String> event;
+
+        public List<String> getEvent() {
+            return event;
+        }
+
+        public void setEvent(final List<String> event) {
+            this.event = event;
+        }
+    }
+}
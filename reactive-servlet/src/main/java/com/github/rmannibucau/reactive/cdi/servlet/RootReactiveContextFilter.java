@@ -8,90 +8,182 @@ import javax.servlet.AsyncEvent;
 import javax.servlet.AsyncListener;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ReadListener;
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Starts a scope per request. With the {@code lazy} init parameter set to {@code true}, the scope is only created
+ * when a {@code ReactiveScoped} bean is used (see {@link ReactiveContext#startLazily()}), it fits endpoints rarely
+ * using them (static resources, health checks...): the requests not using any only allocate the root and
+ * the request/response wrappers, which bind it to the asynchronous and non-blocking I/O callbacks.
+ */
 public class RootReactiveContextFilter implements Filter {
     @Inject
     private ReactiveContext context;
 
+    private boolean lazy;
+
+    @Override
+    public void init(final FilterConfig filterConfig) {
+        lazy = Boolean.parseBoolean(filterConfig.getInitParameter("lazy"));
+    }
+
     @Override
     public void doFilter(final ServletRequest request, final ServletResponse response,
                          final FilterChain chain) throws IOException, ServletException {
-        final var rootCtx = context.start();
+        final var existing = request.getAttribute(ReactiveContext.Ctx.class.getName());
+        if (existing != null) { // async/error dispatch of a request with a running scope
+            doFilterInScope(ReactiveContext.Ctx.class.cast(existing), request, response, chain);
+            return;
+        }
+        final var rootCtx = lazy ? context.startLazily() : context.start();
         request.setAttribute(ReactiveContext.Ctx.class.getName(), rootCtx);
         try {
-            chain.doFilter(new HttpServletRequestWrapper(HttpServletRequest.class.cast(request)) {
-                @Override
-                public AsyncContext startAsync() throws IllegalStateException {
-                    return cleanOnEnd(rootCtx, super.startAsync());
-                }
-
-                @Override
-                public AsyncContext startAsync(final ServletRequest servletRequest, final ServletResponse servletResponse) throws IllegalStateException {
-                    return cleanOnEnd(rootCtx, super.startAsync(servletRequest, servletResponse));
-                }
-
-            }, response);
+            chain.doFilter(new ReactiveRequest(HttpServletRequest.class.cast(request), context, rootCtx, null),
+                    new ReactiveResponse(HttpServletResponse.class.cast(response), rootCtx));
         } finally {
             if (!request.isAsyncStarted()) {
-                context.finish(rootCtx);
+                finish(request, rootCtx);
             }
             context.reset(rootCtx); // does not destroy instances but clean up the thread local to avoid to leak
         }
     }
 
-    private AsyncContext cleanOnEnd(final ReactiveContext.Ctx rootCtx, final AsyncContext ctx) {
-        ctx.addListener(new ReactiveAsyncListener(context, rootCtx));
-        return new ReactiveAsyncContext(ctx, rootCtx);
+    // the scope is finished by the listener registered in the initial dispatch, only bind it there
+    private void doFilterInScope(final ReactiveContext.Ctx rootCtx, final ServletRequest request, final ServletResponse response,
+                                 final FilterChain chain) throws IOException, ServletException {
+        final var previous = rootCtx.enter();
+        try {
+            chain.doFilter(
+                    new ReactiveRequest(HttpServletRequest.class.cast(request), context, rootCtx,
+                            ReactiveAsyncContext.class.cast(request.getAttribute(ReactiveAsyncContext.class.getName()))),
+                    new ReactiveResponse(HttpServletResponse.class.cast(response), rootCtx));
+        } finally {
+            rootCtx.exit(previous);
+        }
     }
 
-    private static class ReactiveAsyncListener implements AsyncListener {
-        private final ReactiveContext scope;
+    // an error dispatch can follow a synchronous request, it must not see the destroyed scope
+    private void finish(final ServletRequest request, final ReactiveContext.Ctx rootCtx) {
+        request.removeAttribute(ReactiveContext.Ctx.class.getName());
+        context.finish(rootCtx);
+    }
+
+    // one instance per request, async context and listener are created once even if the request goes async again
+    private static class ReactiveRequest extends HttpServletRequestWrapper {
+        private final ReactiveContext context;
         private final ReactiveContext.Ctx root;
+        private ReactiveAsyncContext asyncContext;
+        private ServletInputStream inputStream;
 
-        private ReactiveAsyncListener(final ReactiveContext context, final ReactiveContext.Ctx rootCtx) {
-            this.scope = context;
-            this.root = rootCtx;
+        private ReactiveRequest(final HttpServletRequest request, final ReactiveContext context, final ReactiveContext.Ctx root,
+                                final ReactiveAsyncContext asyncContext) {
+            super(request);
+            this.context = context;
+            this.root = root;
+            this.asyncContext = asyncContext;
         }
 
-        private void onEnd() { // end of the request we can destroy the context we created
-            scope.finish(root);
+        @Override
+        public AsyncContext startAsync() throws IllegalStateException {
+            return onStartAsync(super.startAsync());
         }
 
         @Override
-        public void onComplete(final AsyncEvent event) {
-            onEnd();
+        public AsyncContext startAsync(final ServletRequest servletRequest, final ServletResponse servletResponse) throws IllegalStateException {
+            return onStartAsync(super.startAsync(servletRequest, servletResponse));
         }
 
         @Override
-        public void onTimeout(final AsyncEvent event) {
-            onEnd();
+        public AsyncContext getAsyncContext() {
+            final var delegate = super.getAsyncContext();
+            return asyncContext != null && asyncContext.delegate == delegate ? asyncContext : delegate;
         }
 
         @Override
-        public void onError(final AsyncEvent event) {
-            onEnd();
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new ReactiveServletInputStream(super.getInputStream(), root);
+            }
+            return inputStream;
+        }
+
+        private AsyncContext onStartAsync(final AsyncContext delegate) {
+            if (asyncContext == null) {
+                asyncContext = new ReactiveAsyncContext(context, root, delegate);
+                delegate.addListener(asyncContext);
+                setAttribute(ReactiveAsyncContext.class.getName(), asyncContext); // for the dispatches
+            } else { // the listener registers itself again in onStartAsync
+                asyncContext.delegate = delegate;
+            }
+            return asyncContext;
+        }
+    }
+
+    private static class ReactiveResponse extends HttpServletResponseWrapper {
+        private final ReactiveContext.Ctx root;
+        private ServletOutputStream outputStream;
+
+        private ReactiveResponse(final HttpServletResponse response, final ReactiveContext.Ctx root) {
+            super(response);
+            this.root = root;
         }
 
         @Override
-        public void onStartAsync(final AsyncEvent event) {
-            event.getAsyncContext().addListener(this);
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new ReactiveServletOutputStream(super.getOutputStream(), root);
+            }
+            return outputStream;
         }
     }
 
-    private static class ReactiveAsyncContext implements AsyncContext {
-        private final AsyncContext delegate;
+    // propagates the scope to start() and destroys it at the end of the request
+    private static class ReactiveAsyncContext implements AsyncContext, AsyncListener {
+        private final ReactiveContext scope;
         private final ReactiveContext.Ctx current;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile AsyncContext delegate; // replaced when the request goes async again, read by other threads
 
-        private ReactiveAsyncContext(final AsyncContext ctx, final ReactiveContext.Ctx current) {
-            this.delegate = ctx;
+        private ReactiveAsyncContext(final ReactiveContext scope, final ReactiveContext.Ctx current, final AsyncContext delegate) {
+            this.scope = scope;
             this.current = current;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onComplete(final AsyncEvent event) { // end of the request we can destroy the context we created
+            if (finished.compareAndSet(false, true)) {
+                scope.finish(current);
+            }
+        }
+
+        @Override
+        public void onTimeout(final AsyncEvent event) {
+            // no-op, the container completes the request after the error dispatch if any, which still uses the scope
+        }
+
+        @Override
+        public void onError(final AsyncEvent event) {
+            // no-op, same as timeout
+        }
+
+        @Override
+        public void onStartAsync(final AsyncEvent event) { // listeners are dropped when the request goes async again
+            event.getAsyncContext().addListener(this);
         }
 
         @Override
@@ -159,4 +251,155 @@ public class RootReactiveContextFilter implements Filter {
             return delegate.getTimeout();
         }
     }
+
+    // non-blocking I/O callbacks are called by container threads, bind the scope of the request around them
+    private static class ReactiveServletInputStream extends ServletInputStream {
+        private final ServletInputStream delegate;
+        private final ReactiveContext.Ctx ctx;
+
+        private ReactiveServletInputStream(final ServletInputStream delegate, final ReactiveContext.Ctx ctx) {
+            this.delegate = delegate;
+            this.ctx = ctx;
+        }
+
+        @Override
+        public void setReadListener(final ReadListener readListener) {
+            delegate.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    final var previous = ctx.enter();
+                    try {
+                        readListener.onDataAvailable();
+                    } finally {
+                        ctx.exit(previous);
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    final var previous = ctx.enter();
+                    try {
+                        readListener.onAllDataRead();
+                    } finally {
+                        ctx.exit(previous);
+                    }
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    final var previous = ctx.enter();
+                    try {
+                        readListener.onError(throwable);
+                    } finally {
+                        ctx.exit(previous);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public int read() throws IOException {
+            return delegate.read();
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            return delegate.read(b, off, len);
+        }
+
+        @Override
+        public int readLine(final byte[] b, final int off, final int len) throws IOException {
+            return delegate.readLine(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return delegate.available();
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            return delegate.skip(n);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private static class ReactiveServletOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private final ReactiveContext.Ctx ctx;
+
+        private ReactiveServletOutputStream(final ServletOutputStream delegate, final ReactiveContext.Ctx ctx) {
+            this.delegate = delegate;
+            this.ctx = ctx;
+        }
+
+        @Override
+        public void setWriteListener(final WriteListener writeListener) {
+            delegate.setWriteListener(new WriteListener() {
+                @Override
+                public void onWritePossible() throws IOException {
+                    final var previous = ctx.enter();
+                    try {
+                        writeListener.onWritePossible();
+                    } finally {
+                        ctx.exit(previous);
+                    }
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    final var previous = ctx.enter();
+                    try {
+                        writeListener.onError(throwable);
+                    } finally {
+                        ctx.exit(previous);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void print(final String s) throws IOException { // the default implementation writes char per char
+            delegate.print(s);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
 }
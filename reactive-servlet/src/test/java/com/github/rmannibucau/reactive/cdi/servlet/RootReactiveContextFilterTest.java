@@ -2,6 +2,8 @@ package com.github.rmannibucau.reactive.cdi.servlet;
 
 import com.github.rmannibucau.reactive.cdi.scope.api.ReactiveScoped;
 import com.github.rmannibucau.reactive.cdi.scope.internal.ReactiveContext;
+import com.github.rmannibucau.reactive.cdi.scope.internal.metrics.ReactiveScopeMetrics;
+import com.github.rmannibucau.reactive.cdi.scope.spi.ReactiveScopeInstrumentation;
 import org.apache.meecrowave.configuration.Configuration;
 import org.apache.meecrowave.junit5.MeecrowaveConfig;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,21 +14,37 @@ import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.Dependent;
 import javax.inject.Inject;
+import javax.servlet.DispatcherType;
+import javax.servlet.ReadListener;
+import javax.servlet.WriteListener;
 import javax.servlet.annotation.WebFilter;
+import javax.servlet.annotation.WebInitParam;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.client.ClientBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.concurrent.CompletableFuture.completedStage;
+import static javax.ws.rs.client.Entity.entity;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
 
-@MeecrowaveConfig(scanningPackageIncludes = "com.github.rmannibucau.reactive.cdi.servlet.RootReactiveContextFilterTest")
+@MeecrowaveConfig(
+        scanningPackageIncludes = "com.github.rmannibucau.reactive.cdi.servlet.RootReactiveContextFilterTest",
+        jaxrsMapping = "/api/*") // let plain servlets be reachable
 class RootReactiveContextFilterTest {
     @Inject
     private SpyState spyState;
@@ -34,6 +52,9 @@ class RootReactiveContextFilterTest {
     @Inject
     private Configuration configuration;
 
+    @Inject
+    private ReactiveContext context;
+
     @BeforeEach
     void reset() {
         spyState.setCreated(0);
@@ -47,12 +68,13 @@ class RootReactiveContextFilterTest {
         final var client = ClientBuilder.newClient();
         try {
             assertEquals("called",
-                    client.target("http://localhost:" + configuration.getHttpPort() + "/RootReactiveContextFilterTest")
+                    client.target("http://localhost:" + configuration.getHttpPort() + "/api/RootReactiveContextFilterTest")
                             .request(TEXT_PLAIN_TYPE)
                             .get(String.class));
         } finally {
             client.close();
         }
+        awaitDestruction();
         assertEquals(1, spyState.getCreated());
         assertEquals(1, spyState.getDestroyed());
         assertEquals(2, spyState.getInstances().size());
@@ -60,6 +82,205 @@ class RootReactiveContextFilterTest {
         assertEquals(List.of("create", "get", "async", "destroy"), spyState.getEvent());
     }
 
+    @Test
+    void nonBlockingIo() {
+        final var client = ClientBuilder.newClient();
+        try {
+            assertEquals("read:payload",
+                    client.target("http://localhost:" + configuration.getHttpPort() + "/RootReactiveContextFilterTest/nio")
+                            .request(TEXT_PLAIN_TYPE)
+                            .post(entity("payload", TEXT_PLAIN_TYPE), String.class));
+        } finally {
+            client.close();
+        }
+        awaitDestruction();
+        assertEquals(List.of("create", "destroy"), spyState.getEvent());
+    }
+
+    @Test
+    void asyncAgainAfterDispatch() {
+        assertEquals("first:again", get("/RootReactiveContextFilterTest/again"));
+        awaitDestruction();
+        assertEquals(List.of("create", "destroy"), spyState.getEvent());
+    }
+
+    @Test
+    void lazyWithoutBean() {
+        final var metrics = new ReactiveScopeMetrics();
+        context.setInstrumentation(metrics);
+        try {
+            assertEquals("none", get("/api/RootReactiveContextFilterTest/lazy/none"));
+        } finally {
+            context.setInstrumentation(ReactiveScopeInstrumentation.NOOP);
+        }
+        assertEquals(0, metrics.getStartedScopes());
+        assertEquals(List.of(), spyState.getEvent());
+    }
+
+    @Test
+    void lazyWrappedCallback() {
+        assertEquals("wrapped", get("/api/RootReactiveContextFilterTest/lazy/wrapped"));
+        awaitDestruction();
+        assertEquals(List.of("create", "get", "wrapped", "destroy"), spyState.getEvent());
+    }
+
+    @Test
+    void lazyAsyncStart() {
+        assertEquals("started", get("/RootReactiveContextLazyFilterTest/start"));
+        awaitDestruction();
+        assertEquals(List.of("create", "destroy"), spyState.getEvent());
+    }
+
+    @Test
+    void lazyAsync() {
+        assertEquals("called", get("/api/RootReactiveContextFilterTest/lazy/async"));
+        awaitDestruction();
+        assertEquals(List.of("create", "get", "async", "destroy"), spyState.getEvent());
+    }
+
+    // async listeners are notified once the response is completed so the client can get it before
+    private void awaitDestruction() {
+        final long end = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (!spyState.getEvent().contains("destroy") && System.nanoTime() < end) {
+            try {
+                Thread.sleep(10);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+            }
+        }
+    }
+
+    private String get(final String path) {
+        final var client = ClientBuilder.newClient();
+        try {
+            return client.target("http://localhost:" + configuration.getHttpPort() + path)
+                    .request(TEXT_PLAIN_TYPE)
+                    .get(String.class);
+        } finally {
+            client.close();
+        }
+    }
+
+    @WebServlet(urlPatterns = "/RootReactiveContextFilterTest/nio", asyncSupported = true)
+    public static class NonBlockingServlet extends HttpServlet {
+        @Inject
+        private Buffer buffer;
+
+        @Override
+        protected void doPost(final HttpServletRequest req, final HttpServletResponse resp) throws IOException {
+            final var asyncContext = req.startAsync();
+            final var in = req.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    final var bytes = new byte[512];
+                    while (in.isReady() && !in.isFinished()) {
+                        final int read = in.read(bytes);
+                        if (read > 0) {
+                            buffer.getData().write(bytes, 0, read);
+                        }
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() throws IOException {
+                    final var out = resp.getOutputStream();
+                    out.setWriteListener(new WriteListener() {
+                        @Override
+                        public void onWritePossible() throws IOException {
+                            if (out.isReady()) {
+                                out.write(("read:" + buffer.getData().toString(StandardCharsets.UTF_8))
+                                        .getBytes(StandardCharsets.UTF_8));
+                                asyncContext.complete();
+                            }
+                        }
+
+                        @Override
+                        public void onError(final Throwable throwable) {
+                            asyncContext.complete();
+                        }
+                    });
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    asyncContext.complete();
+                }
+            });
+        }
+    }
+
+    // the async dispatch goes through the filter again, it must reuse the scope of the request
+    @WebServlet(urlPatterns = "/RootReactiveContextFilterTest/again", asyncSupported = true)
+    public static class AsyncAgainServlet extends HttpServlet {
+        @Inject
+        private Buffer buffer;
+
+        @Override
+        protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) {
+            if (req.getDispatcherType() == DispatcherType.ASYNC) {
+                final var asyncContext = req.startAsync();
+                asyncContext.start(() -> {
+                    try {
+                        resp.getWriter().write(buffer.getData().toString(StandardCharsets.UTF_8) + ":again");
+                    } catch (final IOException e) {
+                        throw new IllegalStateException(e);
+                    } finally {
+                        asyncContext.complete();
+                    }
+                });
+                return;
+            }
+            buffer.getData().writeBytes("first".getBytes(StandardCharsets.UTF_8));
+            req.startAsync().dispatch();
+        }
+    }
+
+    // the scope is only created by the thread of AsyncContext.start()
+    @WebServlet(urlPatterns = "/RootReactiveContextLazyFilterTest/start", asyncSupported = true)
+    public static class LazyAsyncStartServlet extends HttpServlet {
+        @Inject
+        private Buffer buffer;
+
+        @Override
+        protected void doGet(final HttpServletRequest req, final HttpServletResponse resp) {
+            final var asyncContext = req.startAsync();
+            asyncContext.start(() -> {
+                try {
+                    buffer.getData().writeBytes("started".getBytes(StandardCharsets.UTF_8));
+                    resp.getWriter().write(buffer.getData().toString(StandardCharsets.UTF_8));
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    asyncContext.complete();
+                }
+            });
+        }
+    }
+
+    @ReactiveScoped
+    public static class Buffer {
+        @Inject
+        private SpyState spyState;
+
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+        public ByteArrayOutputStream getData() {
+            return data;
+        }
+
+        @PostConstruct
+        private void create() {
+            spyState.getEvent().add("create");
+        }
+
+        @PreDestroy
+        private void destroy() {
+            spyState.getEvent().add("destroy");
+        }
+    }
+
     @ReactiveScoped
     @Path("RootReactiveContextFilterTest")
     public static class Endpoint {
@@ -98,10 +319,79 @@ class RootReactiveContextFilterTest {
     }
 
     @Dependent
-    @WebFilter(urlPatterns = "/*", asyncSupported = true)
+    @WebFilter(
+            urlPatterns = {"/api/RootReactiveContextFilterTest", "/RootReactiveContextFilterTest/*"},
+            dispatcherTypes = {DispatcherType.REQUEST, DispatcherType.ASYNC},
+            asyncSupported = true)
     public static class Register extends RootReactiveContextFilter {
     }
 
+    @Dependent
+    @WebFilter(
+            urlPatterns = {"/api/RootReactiveContextFilterTest/lazy/*", "/RootReactiveContextLazyFilterTest/*"},
+            asyncSupported = true,
+            initParams = @WebInitParam(name = "lazy", value = "true"))
+    public static class RegisterLazy extends RootReactiveContextFilter {
+    }
+
+    @ApplicationScoped
+    @Path("RootReactiveContextFilterTest/lazy")
+    public static class LazyEndpoint {
+        @Inject
+        private LazyState state;
+
+        @Inject
+        private ReactiveContext context;
+
+        @GET
+        @Path("none")
+        @Produces(TEXT_PLAIN)
+        public String none() {
+            return "none";
+        }
+
+        @GET
+        @Path("wrapped")
+        @Produces(TEXT_PLAIN)
+        public String wrapped() { // a wrapped callback run synchronously must restore the request scope
+            state.add("get");
+            final String result = context.<String, String>wrapFunction(it -> it).apply("wrapped");
+            state.add(result);
+            return result;
+        }
+
+        @GET
+        @Path("async")
+        @Produces(TEXT_PLAIN)
+        public CompletionStage<String> async() {
+            state.add("get");
+            return completedStage(true).thenApplyAsync(it -> {
+                state.add("async");
+                return "called";
+            }, context.wrapExecutor(command -> new Thread(command).start()));
+        }
+    }
+
+    @ReactiveScoped
+    public static class LazyState {
+        @Inject
+        private SpyState spyState;
+
+        public void add(final String event) {
+            spyState.getEvent().add(event);
+        }
+
+        @PostConstruct
+        private void create() {
+            spyState.getEvent().add("create");
+        }
+
+        @PreDestroy
+        private void destroy() {
+            spyState.getEvent().add("destroy");
+        }
+    }
+
     @ApplicationScoped
     public static class SpyState {
         private int created;